@@ -0,0 +1,82 @@
+package net.mine_diver.unsafeevents.benchmarks;
+
+import it.unimi.dsi.fastutil.Pair;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.mine_diver.unsafeevents.event.EventPhases;
+import net.mine_diver.unsafeevents.event.PhaseOrdering;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork (1)
+@Threads(1)
+@State (Scope.Benchmark)
+public class PhaseOrderingBenchmark {
+    public static final int PHASES = 1_000;
+    public static final int EDGES = 5_000;
+
+    private static final byte[] EVENT_CLASS = generateEventClass();
+
+    @Setup
+    public void setup() {
+        // random edges going forward in a shuffled order, so the graph is acyclic
+        Random random = new Random(1234);
+        List<String> order = new ObjectArrayList<>(PHASES);
+        for (int i = 0; i < PHASES; i++)
+            order.add("phase" + i);
+        Collections.shuffle(order, random);
+        orderings = new ObjectArrayList<>(EDGES);
+        while (orderings.size() < EDGES) {
+            int first = random.nextInt(PHASES);
+            int second = random.nextInt(PHASES);
+            if (first < second)
+                orderings.add(Pair.of(order.get(first), order.get(second)));
+            else if (first > second)
+                orderings.add(Pair.of(order.get(second), order.get(first)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void defineEventType() throws IllegalAccessException {
+        // phase orderings are cached per event type, so each invocation needs a fresh one
+        eventType = MethodHandles.lookup().defineHiddenClass(EVENT_CLASS, false).lookupClass().asSubclass(TestEvent.class);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void batch(Blackhole blackhole) {
+        PhaseOrdering<? extends TestEvent> ordering = PhaseOrdering.of(eventType);
+        ordering.addPhaseOrderings(orderings);
+        blackhole.consume(ordering.getPhaseRank(EventPhases.DEFAULT_PHASE));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void incremental(Blackhole blackhole) {
+        PhaseOrdering<? extends TestEvent> ordering = PhaseOrdering.of(eventType);
+        for (Pair<String, String> pair : orderings)
+            ordering.addPhaseOrdering(pair.left(), pair.right());
+        blackhole.consume(ordering.getPhaseRank(EventPhases.DEFAULT_PHASE));
+    }
+
+    private static byte[] generateEventClass() {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, Type.getInternalName(PhaseOrderingBenchmark.class) + "$Event", null, Type.getInternalName(TestEvent.class), null);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    public List<Pair<String, String>> orderings;
+
+    public Class<? extends TestEvent> eventType;
+}
@@ -0,0 +1,43 @@
+package net.mine_diver.unsafeevents.benchmarks;
+
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.Listener;
+import net.mine_diver.unsafeevents.queue.EventPipeline;
+import net.mine_diver.unsafeevents.queue.WaitStrategy;
+import org.openjdk.jmh.annotations.*;
+
+@Warmup(iterations = 10)
+@Fork (1)
+@BenchmarkMode(Mode.Throughput)
+@State (Scope.Group)
+public class PipelineBenchmark {
+    @Param({ "BUSY_SPIN", "YIELD", "PARK" })
+    public WaitStrategy waitStrategy;
+
+    @Setup
+    public void setup() {
+        EventBus eventBus = new EventBus();
+        eventBus.register(Listener.staticMethods().listener(TestListener.class).build());
+        pipeline = EventPipeline.builder()
+                .bus(eventBus)
+                .bufferSize(4096)
+                .waitStrategy(waitStrategy)
+                .build();
+        pipeline.route(TestEvent.class);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipeline.close();
+    }
+
+    // publishing blocks on a full ring, so the measured throughput is bounded by the consumer
+    @org.openjdk.jmh.annotations.Benchmark
+    @Group("pipeline")
+    @GroupThreads(2)
+    public void publish() {
+        pipeline.publish(TestEvent.builder().sum(0).build());
+    }
+
+    public EventPipeline pipeline;
+}
@@ -0,0 +1,36 @@
+package net.mine_diver.unsafeevents.benchmarks;
+
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.MutableEventBus;
+import net.mine_diver.unsafeevents.listener.GenericListener;
+import net.mine_diver.unsafeevents.listener.Listener;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+@Warmup(iterations = 10,
+        batchSize = 10_000)
+@Fork (1)
+@Threads(1)
+@State (Scope.Benchmark)
+public class RegistrationBenchmark {
+    @Setup
+    public void setup() {
+        eventBus = new EventBus();
+        // making sure the listener class is already known
+        Listener.object().listener(new TestObjectListener()).build();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void objectListener(Blackhole blackhole) {
+        blackhole.consume(Listener.object().listener(new TestObjectListener()).build());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public void registerUnregister() {
+        GenericListener listener = Listener.object().listener(new TestObjectListener()).build();
+        eventBus.register(listener);
+        eventBus.unregister(listener);
+    }
+
+    public MutableEventBus eventBus;
+}
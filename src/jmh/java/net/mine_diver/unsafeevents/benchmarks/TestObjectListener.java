@@ -0,0 +1,20 @@
+package net.mine_diver.unsafeevents.benchmarks;
+
+import net.mine_diver.unsafeevents.listener.EventListener;
+
+public class TestObjectListener {
+    @EventListener
+    public void listener1(TestEvent event) {
+        event.sum += 1;
+    }
+
+    @EventListener
+    public void listener2(TestEvent event) {
+        event.sum += 2;
+    }
+
+    @EventListener
+    public void listener3(TestEvent event) {
+        event.sum += 3;
+    }
+}
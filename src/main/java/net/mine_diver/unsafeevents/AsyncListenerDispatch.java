@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Hands an event off to the async listeners of its type.
+ *
+ * <p>
+ *     Each listener is submitted to the executor separately.
+ *     Once the last of them has finished, the completion hook is called
+ *     with the event and the first exception thrown by the listeners, if any,
+ *     and then the event is finished, so pooled events aren't recycled
+ *     while async listeners are still using them.
+ *     Both happen on the thread of the last listener.
+ * </p>
+ *
+ * @param <EVENT> the event type.
+ * @see net.mine_diver.unsafeevents.listener.EventListener#async()
+ * @author mine_diver
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+final class AsyncListenerDispatch<EVENT extends Event> implements Consumer<EVENT> {
+    /**
+     * The default executor of async listeners.
+     *
+     * <p>
+     *     A pool of up to {@link #DEFAULT_THREADS} daemon threads with an unbounded queue,
+     *     so a burst of blocking listeners waits for a free thread instead of starting a thread each.
+     *     Threads are only started once an async listener is dispatched, and stop after a minute of idling.
+     * </p>
+     *
+     * @see EventBus#setAsyncListenerExecutor(Executor)
+     */
+    static final @NotNull ExecutorService DEFAULT_EXECUTOR;
+
+    /**
+     * The maximum number of threads of {@link #DEFAULT_EXECUTOR}.
+     */
+    static final int DEFAULT_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    static {
+        val executor = new ThreadPoolExecutor(
+                DEFAULT_THREADS, DEFAULT_THREADS,
+                1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    val thread = new Thread(runnable, "UnsafeEvents async listener");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        DEFAULT_EXECUTOR = executor;
+    }
+
+    @NotNull Executor executor;
+    @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners;
+    @Nullable BiConsumer<? super @NotNull Event, ? super @Nullable Throwable> completionHook;
+    boolean finish;
+
+    @Override
+    public void accept(final @NotNull EVENT event) {
+        val completion = new Completion(listeners.length);
+        for (val listener : listeners) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        listener.accept(event);
+                    } catch (final Throwable throwable) {
+                        completion.fail(throwable);
+                    }
+                    complete(completion, event);
+                });
+            } catch (final RejectedExecutionException exception) {
+                completion.fail(exception);
+                complete(completion, event);
+            }
+        }
+    }
+
+    private void complete(final @NotNull Completion completion, final @NotNull EVENT event) {
+        if (completion.decrementAndGet() != 0) return;
+        val failure = completion.failure;
+        try {
+            if (completionHook != null) completionHook.accept(event, failure);
+            else if (failure != null) {
+                val thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, failure);
+            }
+        } finally {
+            if (finish) event.finish();
+        }
+    }
+
+    /**
+     * The number of async listeners of a dispatch that are yet to finish,
+     * and the exceptions they've thrown.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Completion extends AtomicInteger {
+        volatile @Nullable Throwable failure;
+
+        private Completion(final int listeners) {
+            super(listeners);
+        }
+
+        private synchronized void fail(final @NotNull Throwable throwable) {
+            if (failure == null) failure = throwable;
+            else failure.addSuppressed(throwable);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * A batch of concurrent listeners of the same phase.
+ *
+ * <p>
+ *     All listeners but the first are run as tasks of the pool,
+ *     the first one runs on the posting thread, and then the batch is joined,
+ *     so the dispatch only continues once every listener of the batch has finished.
+ *     When posting from a worker of the same pool, the tasks are forked onto its own queue,
+ *     so joining runs the ones that weren't stolen right away instead of blocking.
+ * </p>
+ *
+ * <p>
+ *     Each dispatch allocates a task per listener but the first, and an array of them.
+ *     Batching only pays off for listeners that take long enough to outweigh that.
+ * </p>
+ *
+ * <p>
+ *     If any listeners throw, the first exception is rethrown after the whole batch is done,
+ *     with the rest added as suppressed.
+ * </p>
+ *
+ * @param <EVENT> the event type.
+ * @see net.mine_diver.unsafeevents.listener.EventListener#concurrent()
+ * @author mine_diver
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+final class ConcurrentListenerBatch<EVENT extends Event> implements Consumer<EVENT> {
+    @NotNull ForkJoinPool pool;
+    @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners;
+
+    @Override
+    @SneakyThrows
+    public void accept(final @NotNull EVENT event) {
+        //noinspection unchecked
+        final ListenerTask<EVENT>[] tasks = new ListenerTask[listeners.length - 1];
+        val forked = ForkJoinTask.getPool() == pool;
+        for (int i = 0; i < tasks.length; i++) {
+            val task = tasks[i] = new ListenerTask<>(listeners[i + 1], event);
+            if (forked) task.fork();
+            else pool.execute(task);
+        }
+        @Nullable Throwable failure = null;
+        try {
+            listeners[0].accept(event);
+        } catch (final Throwable throwable) {
+            failure = throwable;
+        }
+        // joining the last forked task first, as it's on top of this worker's queue
+        for (int i = tasks.length - 1; i >= 0; i--) tasks[i].quietlyJoin();
+        for (val task : tasks) {
+            val throwable = task.getException();
+            if (throwable == null) continue;
+            if (failure == null) failure = throwable;
+            else failure.addSuppressed(throwable);
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * A single listener's dispatch of the event.
+     *
+     * @param <EVENT> the event type.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(
+            level = AccessLevel.PRIVATE,
+            makeFinal = true
+    )
+    private static final class ListenerTask<EVENT extends Event> extends RecursiveAction {
+        @NotNull Consumer<@NotNull EVENT> listener;
+        @NotNull EVENT event;
+
+        @Override
+        protected void compute() {
+            listener.accept(event);
+        }
+    }
+}
@@ -31,8 +31,10 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 import lombok.val;
 import net.mine_diver.unsafeevents.event.Cancelable;
+import net.mine_diver.unsafeevents.transform.EventSubclassTransformer;
 import net.mine_diver.unsafeevents.util.Util;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandles;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -115,6 +117,31 @@ public abstract class Event {
 
     private static final @NotNull ToIntFunction<@NotNull Class<? extends Event>> ID_GENERATOR = eventType -> NEXT_ID.incrementAndGet();
 
+    /**
+     * Per-type cache of whether {@link #finish()} is a no-op.
+     *
+     * <p>
+     *     Reads the flag injected by {@link EventSubclassTransformer} if present,
+     *     otherwise falls back to looking up {@link #finish()} overrides in the hierarchy.
+     * </p>
+     *
+     * @see #isFinishNoop(Class)
+     */
+    private static final @NotNull ClassValue<@NotNull Boolean> FINISH_NOOP = new ClassValue<>() {
+        @Override
+        protected @NotNull Boolean computeValue(final @NotNull Class<?> type) {
+            try {
+                return type.getDeclaredField(EventSubclassTransformer.FIELD_FINISHNOOP_NAME).getBoolean(null);
+            } catch (final NoSuchFieldException | IllegalAccessException ignored) {}
+            for (@Nullable Class<?> curClass = type; curClass != null && curClass != Event.class; curClass = curClass.getSuperclass())
+                try {
+                    curClass.getDeclaredMethod("finish");
+                    return false;
+                } catch (final NoSuchMethodException ignored) {}
+            return true;
+        }
+    };
+
     /**
      * Returns the event ID of the specified event type from {@link Event#EVENT_ID_LOOKUP}.
      *
@@ -147,6 +174,23 @@ public abstract class Event {
         return EVENT_ID_LOOKUP.computeIfAbsent(eventType, ID_GENERATOR);
     }
 
+    /**
+     * Returns whether {@link #finish()} of the specified event type is a no-op.
+     *
+     * <p>
+     *     Used by dispatchers to skip the post-dispatch call entirely
+     *     for event types that don't override {@link #finish()}.
+     * </p>
+     *
+     * @param eventType the event type to check.
+     * @return whether the event type's {@link #finish()} does nothing.
+     */
+    public static boolean isFinishNoop(
+            final @NotNull Class<? extends Event> eventType
+    ) {
+        return FINISH_NOOP.get(eventType);
+    }
+
     /**
      * Caller sensitive, and thus protected, version of {@link #getEventID(Class)}.
      *
@@ -27,7 +27,13 @@ package net.mine_diver.unsafeevents;
 import com.google.common.collect.ObjectArrays;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import it.unimi.dsi.fastutil.ints.Int2ReferenceMap;
+import it.unimi.dsi.fastutil.ints.Int2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceMaps;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ReferenceSet;
@@ -42,13 +48,25 @@ import net.mine_diver.unsafeevents.listener.*;
 import net.mine_diver.unsafeevents.util.Util;
 import net.mine_diver.unsafeevents.util.collection.Int2ReferenceArrayMapWrapper;
 import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import net.mine_diver.unsafeevents.util.exception.IllegalDispatchException;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
@@ -85,9 +103,30 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      * <p>
      *     This is the default listener for {@link DeadEvent},
      *     made to prevent recursion when there's no {@link DeadEvent} listeners registered.
+     *     Only finishes the dead event, as registries are responsible for {@link Event#finish()}.
      * </p>
      */
-    protected static final @NotNull Consumer<@NotNull Event> DEAD_EVENT_FALLBACK = event -> { /* no need for implementation, empty */ };
+    protected static final @NotNull Consumer<@NotNull Event> DEAD_EVENT_FALLBACK = Event::finish;
+
+    /**
+     * Registry for event types whose listeners are all in disabled groups.
+     *
+     * @see #setGroupEnabled(String, boolean)
+     */
+    protected static final @NotNull Consumer<@NotNull Event> NO_LISTENERS = event -> {};
+
+    /**
+     * Opaque access to {@link #invalidated}, which registration handoffs set from other threads.
+     */
+    private static final @NotNull VarHandle INVALIDATED;
+
+    static {
+        try {
+            INVALIDATED = MethodHandles.lookup().findVarHandle(EventBus.class, "invalidated", boolean.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
      * Default listener for all events.
@@ -103,6 +142,8 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
         deadEvent.event = event;
         // dispatching
         post(deadEvent);
+        // the event type has no compiled registry to finish it
+        event.finish();
     };
 
     /**
@@ -185,10 +226,13 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
     @NotNull ReferenceSet<Class<? extends Event>> invalidatedRegistries = new ReferenceOpenHashSet<>();
 
     /**
-     * Indicates that there were new listeners registered and {@link #invalidatedRegistries} is not empty.
+     * Indicates that there were new listeners registered and {@link #invalidatedRegistries} is not empty,
+     * or that there are {@link #pendingActions}.
      *
      * <p>
      *     This allows for a high performance check during event dispatching.
+     *     Other threads only ever set it with a release write after a handoff,
+     *     and it's checked with an opaque read, which compiles to a plain load.
      * </p>
      *
      * @see #post(Event)
@@ -197,12 +241,94 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      */
     @NonFinal boolean invalidated;
 
+    /**
+     * The thread that owns this bus, or null if registrations aren't handed off.
+     *
+     * @see #setOwner(Thread)
+     */
+    @NonFinal volatile @Nullable Thread owner;
+
+    /**
+     * Registrations, unregistrations and other changes made by other threads than {@link #owner},
+     * waiting to be applied by the owner.
+     *
+     * @see #setOwner(Thread)
+     * @see #handOff(Runnable)
+     */
+    @NotNull Queue<@NotNull Runnable> pendingActions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The profile that dispatches are currently recorded into, or null if profiling is off.
+     *
+     * <p>
+     *     Recording is done by the compiled registries themselves,
+     *     so the dispatch path doesn't check this field.
+     * </p>
+     *
+     * @see #startProfiling(EventProfile)
+     */
+    @NonFinal @Nullable EventProfile profile;
+
+    /**
+     * Listener groups that are left out of compiled registries.
+     *
+     * @see #setGroupEnabled(String, boolean)
+     * @see SingularListener#group()
+     */
+    @NotNull ObjectSet<@NotNull String> disabledGroups = new ObjectOpenHashSet<>();
+
+    /**
+     * Phase-split listeners of the compiled registries, keyed by event ID.
+     *
+     * <p>
+     *     Only present for event types whose registry has been compiled,
+     *     and removed together with the registry when it's invalidated.
+     * </p>
+     *
+     * @see #post(Event, String, String)
+     */
+    @NotNull Int2ReferenceMap<@NotNull PhaseRangeRegistries<?>> phaseRangeRegistries = new Int2ReferenceOpenHashMap<>();
+
+    /**
+     * Event IDs whose dispatch would invoke any listeners, or is disabled.
+     *
+     * <p>
+     *     Updated whenever a registry is compiled or scheduled for compilation,
+     *     since a scheduled registry can't be told apart from a compiled one by its slot.
+     * </p>
+     *
+     * @see #hasListeners(Class)
+     * @see #updateListened(Class)
+     */
+    @NotNull BitSet listenedEvents = new BitSet();
+
+    /**
+     * The pool that batches of concurrent listeners are dispatched on.
+     *
+     * @see #setConcurrentListenerPool(ForkJoinPool)
+     * @see SingularListener#concurrent()
+     */
+    @NonFinal @NotNull ForkJoinPool concurrentListenerPool = ForkJoinPool.commonPool();
+
+    /**
+     * The executor that async listeners are dispatched on.
+     *
+     * @see #setAsyncListenerExecutor(Executor)
+     * @see SingularListener#async()
+     */
+    @NonFinal @NotNull Executor asyncListenerExecutor = AsyncListenerDispatch.DEFAULT_EXECUTOR;
+
+    /**
+     * The hook called once all async listeners of a dispatch are done, or null.
+     *
+     * @see #setAsyncCompletionHook(BiConsumer)
+     */
+    @NonFinal @Nullable BiConsumer<? super @NotNull Event, ? super @Nullable Throwable> asyncCompletionHook;
+
     /**
      * Default constructor.
      */
-    public EventBus() {
-        PhaseOrdering.addInvalidationCallback(this);
-    }
+    public EventBus() {}
 
     /**
      * Registers a singular listener to this event bus's scope.
@@ -214,6 +340,7 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      */
     @Override
     public <EVENT extends Event> void register(final @NotNull SingularListener<@NotNull EVENT> listener) {
+        if (handOff(() -> register(listener))) return;
         Class<EVENT> eventType = listener.eventType();
         // putting the listener into raw listeners array
         listeners.compute(
@@ -222,6 +349,8 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
                         new SingularListener<?>[] { listener } :
                         ObjectArrays.concat(containers, listener)
         );
+        // only listening to phase ordering changes of the event types this bus has listeners for
+        if (listeners.get(eventType).length == 1) PhaseOrdering.of(eventType).subscribe(this);
         // invalidating the state to schedule a recompile of high performance registries during the next event dispatch
         invalidatedRegistries.add(eventType);
         invalidated = true;
@@ -240,6 +369,7 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      */
     @Override
     public <EVENT extends Event> void unregister(@NotNull SingularListener<@NotNull EVENT> listener) {
+        if (handOff(() -> unregister(listener))) return;
         Class<EVENT> eventType = listener.eventType();
         listeners.compute(
                 eventType,
@@ -261,23 +391,221 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
                     throw new IllegalArgumentException("The event bus doesn't contain this listener!");
                 }
         );
+        if (listeners.get(eventType).length == 0) PhaseOrdering.of(eventType).unsubscribe(this);
         // invalidating the state to schedule a recompile of high performance registries during the next event dispatch
         invalidatedRegistries.add(eventType);
         invalidated = true;
     }
 
     /**
-     * Compiles high performance registries that are invalidated through {@link #invalidatedRegistries}.
+     * Sets the thread that owns this bus, enabling registration handoff.
+     *
+     * <p>
+     *     While an owner is set, {@link #register(SingularListener)} and {@link #unregister(SingularListener)}
+     *     calls from other threads don't touch the bus. Instead, they're put into a lock-free queue,
+     *     and the owner applies them in order at the next safe point, which is the invalidation check
+     *     of {@link #post(Event)}, or {@link #applyPending()}. The owner's dispatch path stays the same,
+     *     without any locks or fences. Phase ordering changes, {@link #setGroupEnabled(String, boolean)},
+     *     {@link #startProfiling(EventProfile)} and the setters of the concurrent and async listener pools
+     *     are handed off the same way. Dispatching and every other operation must still be done on the owner thread,
+     *     except for the ones documented to be handed off as well, such as dispatch toggles of
+     *     {@link net.mine_diver.unsafeevents.eventbus.ManagedEventBus}.
+     * </p>
+     *
+     * <p>
+     *     Must be set before the bus is shared with other threads.
+     *     Without an owner, the bus is confined to the thread that uses it.
+     * </p>
+     *
+     * @param owner the owner thread, or null to disable registration handoff.
+     */
+    public void setOwner(final @Nullable Thread owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Returns the thread that owns this bus.
+     *
+     * @return the owner thread, or null if registrations aren't handed off.
+     * @see #setOwner(Thread)
+     */
+    public @Nullable Thread getOwner() {
+        return owner;
+    }
+
+    /**
+     * Applies registrations handed off by other threads and schedules recompilation of invalidated registries.
+     *
+     * <p>
+     *     Must be called on the owner thread. {@link #post(Event)} does the same on its own,
+     *     so this is only needed to make the registrations take effect without dispatching.
+     * </p>
+     *
+     * @see #setOwner(Thread)
+     */
+    public void applyPending() {
+        if (isInvalidated()) compileRegistries();
+    }
+
+    /**
+     * Puts a change of this bus into {@link #pendingActions} if it's made by another thread than the owner.
+     *
+     * <p>
+     *     Subclasses use this for their own state changes that must be made on the owner thread,
+     *     by handing off a call to the same method and returning if this returns true.
+     * </p>
+     *
+     * @param action the change to apply on the owner thread.
+     * @return whether the change was handed off.
+     * @see #setOwner(Thread)
+     */
+    protected boolean handOff(final @NotNull Runnable action) {
+        val owner = this.owner;
+        if (owner == null || owner == Thread.currentThread()) return false;
+        pendingActions.offer(action);
+        INVALIDATED.setRelease(this, true);
+        return true;
+    }
+
+    private void applyPendingActions() {
+        Runnable pending;
+        while ((pending = pendingActions.poll()) != null) {
+            try {
+                pending.run();
+            } catch (final RuntimeException exception) {
+                // the thread that made the registration is long gone
+                val thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            }
+        }
+    }
+
+    private boolean isInvalidated() {
+        return (boolean) INVALIDATED.getOpaque(this);
+    }
+
+    /**
+     * Schedules compilation of high performance registries that are invalidated through {@link #invalidatedRegistries}.
+     *
+     * <p>
+     *     The registries aren't compiled right away. Instead, each invalidated registry
+     *     is replaced with a stub that compiles the actual registry on the event type's
+     *     first dispatch, so listeners of event types that are never dispatched
+     *     don't get their executors generated.
+     * </p>
+     *
+     * <p>
+     *     Registrations handed off by other threads are applied first.
+     * </p>
      *
      * @see #post(Event)
      * @see #invalidated
      * @see #invalidatedRegistries
      */
     protected void compileRegistries() {
-        invalidatedRegistries.iterator().forEachRemaining(this::compileRegistry);
-        // validating the state
+        takeInvalidatedRegistries().forEach(this::scheduleCompilation);
+    }
+
+    /**
+     * Compiles all invalidated registries right away, in parallel on the specified pool.
+     *
+     * <p>
+     *     Sorting listeners and generating executors and registries of each event type
+     *     runs as a separate task, while this thread waits.
+     *     The results are then installed into {@link #registriesArray} in one step,
+     *     so there's no point at which only some of the registries are replaced.
+     *     Meant for large batches of registrations, such as at startup,
+     *     where compiling each event type lazily on its first dispatch adds up.
+     * </p>
+     *
+     * <p>
+     *     Must be called on the owner thread.
+     * </p>
+     *
+     * @param pool the pool to compile the registries on.
+     */
+    public void compileRegistriesParallel(final @NotNull ForkJoinPool pool) {
+        compileParallel(takeInvalidatedRegistries(), pool);
+    }
+
+    /**
+     * Applies registration handoffs and takes the invalidated registries, validating the state.
+     *
+     * @return the event types whose registries were invalidated.
+     */
+    private @NotNull List<@NotNull Class<? extends Event>> takeInvalidatedRegistries() {
+        // validating the state before taking the handoffs, so the ones racing with this call aren't lost.
+        // a volatile write, as a plain one could be reordered after polling the queue
+        INVALIDATED.setVolatile(this, false);
+        applyPendingActions();
+        val eventTypes = new ArrayList<Class<? extends Event>>(invalidatedRegistries);
         invalidatedRegistries.clear();
-        invalidated = false;
+        return eventTypes;
+    }
+
+    /**
+     * Compiles the registries of the specified event types in parallel and installs them in one step.
+     *
+     * <p>
+     *     Only the preparation runs on the pool, and it only reads the state of this bus.
+     *     Disabled registries and profiling wrappers are resolved on this thread.
+     * </p>
+     *
+     * @param eventTypes the event types to compile the registries of.
+     * @param pool the pool to compile the registries on.
+     */
+    private void compileParallel(
+            final @NotNull List<@NotNull Class<? extends Event>> eventTypes,
+            final @NotNull ForkJoinPool pool
+    ) {
+        if (eventTypes.isEmpty()) return;
+        val tasks = new ArrayList<ForkJoinTask<PreparedRegistry<?>>>(eventTypes.size());
+        int maxEventId = registriesArray.length - 1;
+        for (val eventType : eventTypes) {
+            maxEventId = Math.max(maxEventId, Event.getEventID(eventType));
+            phaseRangeRegistries.remove(Event.getEventID(eventType));
+            updateListened(eventType);
+            if (getDisabledRegistry(eventType) == null) tasks.add(pool.submit(() -> prepareRegistry(eventType)));
+        }
+        val prepared = new ArrayList<PreparedRegistry<?>>(tasks.size());
+        try {
+            for (val task : tasks) prepared.add(task.join());
+        } catch (final RuntimeException | Error e) {
+            // the other tasks may still be sorting the listener arrays, which must be left alone until they're done
+            for (val task : tasks) task.quietlyJoin();
+            // leaving the registries to be compiled on their first dispatch, where the failure is reported again
+            eventTypes.forEach(this::scheduleCompilation);
+            throw e;
+        }
+        if (maxEventId >= registriesArray.length) registries.resizeArray(maxEventId + 1);
+        // filling a copy, so dispatches only ever see the old or the new set of registries
+        val compiled = registriesArray.clone();
+        for (val eventType : eventTypes) {
+            val disabledRegistry = getDisabledRegistry(eventType);
+            if (disabledRegistry != null) compiled[Event.getEventID(eventType)] = disabledRegistry;
+        }
+        for (val registry : prepared) compiled[Event.getEventID(registry.eventType())] = wrapRegistry(registry);
+        registriesArray = compiled;
+    }
+
+    /**
+     * Replaces the registry of the specified event type with a stub
+     * that compiles the actual registry and dispatches to it.
+     *
+     * @param eventType the event type to schedule the compilation for.
+     * @param <EVENT> the event type to schedule the compilation for.
+     * @see #compileRegistries()
+     * @see #compileRegistry(Class)
+     */
+    private <EVENT extends Event> void scheduleCompilation(Class<EVENT> eventType) {
+        val eventId = Event.getEventID(eventType);
+        phaseRangeRegistries.remove(eventId);
+        updateListened(eventType);
+        registries.put(eventId, (Consumer<EVENT>) event -> {
+            compileRegistry(eventType);
+            //noinspection unchecked
+            ((Consumer<EVENT>) registriesArray[eventId]).accept(event);
+        });
     }
 
     /**
@@ -285,35 +613,530 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      *
      * <p>
      *     During the compilation process, the listener containers for the specified event
-     *     type are sorted according to the event type's phase ordering using the
-     *     {@link PhaseOrdering#getListenerComparator()} comparator. Then,
-     *     if there's more than 1 listener in the list, the sorted list of
+     *     type, excluding the ones in disabled groups, are sorted according to the event type's phase ordering using
+     *     {@link PhaseOrdering#sortListeners(SingularListener[])}. Then,
+     *     if there's more than 1 listener in the list, or the event type
+     *     has a non-empty {@link Event#finish()}, the sorted list of
      *     listeners is used to create a listener registry using the
-     *     {@link ListenerRegistryFactory#create(Consumer[])} method.
+     *     {@link ListenerRegistryFactory#create(Consumer[], boolean)} method.
      *     Otherwise, the listener itself is used as a registry.
      * </p>
      *
+     * <p>
+     *     If any of the listeners are {@linkplain SingularListener#concurrent() concurrent},
+     *     adjacent concurrent listeners of the same phase are grouped
+     *     into batches by {@link #createBatchedRegistry(SingularListener[], Consumer[], int[], boolean)}.
+     *     If any of the listeners are {@linkplain SingularListener#async() async},
+     *     they're handed off by an {@link AsyncListenerDispatch} after the rest of the listeners,
+     *     which also takes over finishing the event.
+     * </p>
+     *
      * @param eventType the event type to compile the registry for.
      * @param <EVENT> the event type to compile the registry for.
-     * @see #compileRegistries()
-     * @see PhaseOrdering#getListenerComparator()
-     * @see ListenerRegistryFactory#create(Consumer[])
+     * @see #scheduleCompilation(Class)
+     * @see PhaseOrdering#sortListeners(SingularListener[])
+     * @see ListenerRegistryFactory#create(Consumer[], boolean)
      */
     private <EVENT extends Event> void compileRegistry(Class<EVENT> eventType) {
+        updateListened(eventType);
+        val disabledRegistry = getDisabledRegistry(eventType);
+        if (disabledRegistry != null) {
+            registries.put(Event.getEventID(eventType), disabledRegistry);
+            return;
+        }
+        val prepared = prepareRegistry(eventType);
+        registries.put(Event.getEventID(eventType), wrapRegistry(prepared));
+    }
+
+    /**
+     * Sorts the listeners of the specified event type and creates its registry.
+     *
+     * <p>
+     *     Only reads the state of this bus, so registries of different event types
+     *     can be prepared concurrently while this bus isn't modified.
+     * </p>
+     *
+     * @param eventType the event type to prepare the registry for.
+     * @return the prepared registry.
+     * @param <EVENT> the event type to prepare the registry for.
+     * @see #compileRegistry(Class)
+     * @see #compileParallel(List, ForkJoinPool)
+     */
+    private <EVENT extends Event> @NotNull PreparedRegistry<EVENT> prepareRegistry(final @NotNull Class<EVENT> eventType) {
         //noinspection unchecked
-        final SingularListener<EVENT>[] listenerContainers = (SingularListener<EVENT>[]) listeners.get(eventType);
-        Arrays.sort(listenerContainers, PhaseOrdering.of(eventType).getListenerComparator());
+        var listenerContainers = (SingularListener<EVENT>[]) listeners.get(eventType);
+        if (!disabledGroups.isEmpty()) listenerContainers = Arrays.stream(listenerContainers)
+                .filter(listener -> isGroupEnabled(listener.group()))
+                .toArray(SingularListener[]::new);
+        val ordering = PhaseOrdering.of(eventType);
+        val phaseOffsets = ordering.sortListeners(listenerContainers);
+        val finish = !Event.isFinishNoop(eventType);
         //noinspection unchecked
-        registries.put(
-                Event.getEventID(eventType),
-                listenerContainers.length == 1 ?
-                        listenerContainers[0].listener() :
-                        ListenerRegistryFactory.create(
-                                Arrays.stream(listenerContainers)
-                                        .map(SingularListener::listener)
-                                        .toArray(Consumer[]::new)
-                        )
-        );
+        final Consumer<EVENT>[] sortedListeners = Arrays.stream(listenerContainers)
+                .map(SingularListener::listener)
+                .toArray(Consumer[]::new);
+        Consumer<EVENT> registry;
+        if (sortedListeners.length == 0) {
+            //noinspection unchecked
+            registry = (Consumer<EVENT>) (finish ? DEAD_EVENT_FALLBACK : NO_LISTENERS); // all listeners are in disabled groups
+        } else if (Arrays.stream(listenerContainers).anyMatch(SingularListener::async))
+            registry = createAsyncRegistry(ordering, listenerContainers, finish);
+        else
+            registry = createRegistry(listenerContainers, sortedListeners, phaseOffsets, finish);
+        return new PreparedRegistry<>(eventType, registry, new PhaseRangeRegistries<>(ordering, sortedListeners, phaseOffsets));
+    }
+
+    /**
+     * Wraps a prepared registry for profiling and stores its phase range registries.
+     *
+     * @param prepared the prepared registry.
+     * @return the registry to install.
+     * @param <EVENT> the event type.
+     */
+    private <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> wrapRegistry(final @NotNull PreparedRegistry<EVENT> prepared) {
+        val eventType = prepared.eventType();
+        val eventId = Event.getEventID(eventType);
+        var registry = prepared.registry();
+        val profile = this.profile;
+        if (profile != null) registry = profile.record(eventType, registry);
+        phaseRangeRegistries.put(eventId, prepared.phaseRanges());
+        return registry;
+    }
+
+    /**
+     * Records whether dispatching an event of the specified type would invoke any listeners.
+     *
+     * <p>
+     *     Must be called whenever the event type's registry is compiled or scheduled for compilation.
+     *     Event types with dispatch disabled count as listened to.
+     * </p>
+     *
+     * @param eventType the event type whose registry is being replaced.
+     * @see #hasListeners(Class)
+     */
+    private void updateListened(final @NotNull Class<? extends Event> eventType) {
+        var listened = getDisabledRegistry(eventType) != null;
+        if (!listened) {
+            val eventListeners = listeners.get(eventType);
+            if (eventListeners != null) for (val listener : eventListeners) if (isGroupEnabled(listener.group())) {
+                listened = true;
+                break;
+            }
+        }
+        listenedEvents.set(Event.getEventID(eventType), listened);
+    }
+
+    /**
+     * A registry compiled from an event type's listeners, not yet installed.
+     *
+     * @param eventType the event type.
+     * @param registry the registry of the listeners.
+     * @param phaseRanges the phase-split listeners.
+     * @param <EVENT> the event type.
+     */
+    private record PreparedRegistry<EVENT extends Event>(
+            @NotNull Class<EVENT> eventType,
+            @NotNull Consumer<@NotNull EVENT> registry,
+            @NotNull PhaseRangeRegistries<EVENT> phaseRanges
+    ) {}
+
+    /**
+     * Creates a registry of the specified non-empty sorted listeners.
+     *
+     * @param listenerContainers the sorted listeners.
+     * @param sortedListeners the backing consumers of the sorted listeners.
+     * @param phaseOffsets the phase offsets of the sorted listeners.
+     * @param finish whether the registry must finish the event.
+     * @return the registry.
+     * @param <EVENT> the event type.
+     */
+    private <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> createRegistry(
+            final @NotNull SingularListener<EVENT> @NotNull [] listenerContainers,
+            final @NotNull Consumer<@NotNull EVENT> @NotNull [] sortedListeners,
+            final int @NotNull [] phaseOffsets,
+            final boolean finish
+    ) {
+        if (Arrays.stream(listenerContainers).anyMatch(SingularListener::concurrent))
+            return createBatchedRegistry(listenerContainers, sortedListeners, phaseOffsets, finish);
+        if (sortedListeners.length == 1 && !finish)
+            return sortedListeners[0];
+        return ListenerRegistryFactory.create(sortedListeners, finish);
+    }
+
+    /**
+     * Creates a registry that runs the synchronous listeners,
+     * and then hands the event off to the async ones on {@link #asyncListenerExecutor}.
+     *
+     * @param ordering the phase ordering of the event type.
+     * @param listenerContainers the sorted listeners.
+     * @param finish whether the event must be finished once the async listeners are done.
+     * @return the registry.
+     * @param <EVENT> the event type.
+     */
+    private <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> createAsyncRegistry(
+            final @NotNull PhaseOrdering<EVENT> ordering,
+            final @NotNull SingularListener<EVENT> @NotNull [] listenerContainers,
+            final boolean finish
+    ) {
+        //noinspection unchecked
+        final Consumer<EVENT>[] asyncListeners = Arrays.stream(listenerContainers)
+                .filter(SingularListener::async)
+                .map(SingularListener::listener)
+                .toArray(Consumer[]::new);
+        val asyncRegistry = new AsyncListenerDispatch<>(asyncListenerExecutor, asyncListeners, asyncCompletionHook, finish);
+        //noinspection unchecked
+        final SingularListener<EVENT>[] syncContainers = Arrays.stream(listenerContainers)
+                .filter(listener -> !listener.async())
+                .toArray(SingularListener[]::new);
+        if (syncContainers.length == 0) return asyncRegistry;
+        val syncOffsets = ordering.sortListeners(syncContainers);
+        //noinspection unchecked
+        final Consumer<EVENT>[] syncListeners = Arrays.stream(syncContainers)
+                .map(SingularListener::listener)
+                .toArray(Consumer[]::new);
+        //noinspection unchecked
+        return ListenerRegistryFactory.create(new Consumer[] {
+                createRegistry(syncContainers, syncListeners, syncOffsets, false),
+                asyncRegistry
+        }, false);
+    }
+
+    /**
+     * Creates a registry that dispatches adjacent concurrent listeners of the same phase
+     * as {@linkplain ConcurrentListenerBatch batches} on {@link #concurrentListenerPool}.
+     *
+     * <p>
+     *     Batches never span phase boundaries or serial listeners,
+     *     so serial listeners keep their order relative to everything else,
+     *     and each phase only starts once the previous one is done.
+     * </p>
+     *
+     * @param listenerContainers the sorted listeners.
+     * @param sortedListeners the backing consumers of the sorted listeners.
+     * @param phaseOffsets the phase offsets of the sorted listeners.
+     * @param finish whether the registry must finish the event.
+     * @return the batched registry.
+     * @param <EVENT> the event type.
+     */
+    private <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> createBatchedRegistry(
+            final @NotNull SingularListener<EVENT> @NotNull [] listenerContainers,
+            final @NotNull Consumer<@NotNull EVENT> @NotNull [] sortedListeners,
+            final int @NotNull [] phaseOffsets,
+            final boolean finish
+    ) {
+        val steps = new ArrayList<Consumer<EVENT>>();
+        for (int phase = 0; phase < phaseOffsets.length - 1; phase++) {
+            val phaseEnd = phaseOffsets[phase + 1];
+            int i = phaseOffsets[phase];
+            while (i < phaseEnd) {
+                if (!listenerContainers[i].concurrent()) {
+                    steps.add(sortedListeners[i++]);
+                    continue;
+                }
+                val batchStart = i;
+                while (i < phaseEnd && listenerContainers[i].concurrent()) i++;
+                steps.add(i - batchStart == 1 ?
+                        sortedListeners[batchStart] :
+                        new ConcurrentListenerBatch<>(concurrentListenerPool, Arrays.copyOfRange(sortedListeners, batchStart, i))
+                );
+            }
+        }
+        //noinspection unchecked
+        final Consumer<EVENT>[] stepsArray = steps.toArray(Consumer[]::new);
+        return stepsArray.length == 1 && !finish ? stepsArray[0] : ListenerRegistryFactory.create(stepsArray, finish);
+    }
+
+    /**
+     * Compiles a standalone registry of the specified event type's current listeners
+     * for dispatch on partition lanes.
+     *
+     * <p>
+     *     Same as {@link #compileDetachedRegistry(Class)}, but only accepts
+     *     {@linkplain SingularListener#partitionSafe() partition-safe} listeners.
+     * </p>
+     *
+     * @param eventType the event type to compile the registry for.
+     * @return the registry, which only finishes the event if there are no enabled listeners of the event type.
+     * @param <EVENT> the event type to compile the registry for.
+     * @throws IllegalStateException if any of the enabled listeners isn't partition-safe.
+     * @see SingularListener#partitionSafe()
+     * @see net.mine_diver.unsafeevents.queue.PartitionedDispatcher
+     */
+    public <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> compilePartitionRegistry(final @NotNull Class<EVENT> eventType) {
+        return compileDetachedRegistry(eventType, true);
+    }
+
+    /**
+     * Compiles a standalone registry of the specified event type's current listeners
+     * for dispatch on other threads than this bus's.
+     *
+     * <p>
+     *     Unlike the registries of this bus, the returned registry doesn't stick,
+     *     profile or post {@link DeadEvent}, so it doesn't touch the state of this bus
+     *     and can be invoked from other threads. It isn't updated when listeners change.
+     *     The listeners themselves must tolerate being invoked from those threads.
+     * </p>
+     *
+     * <p>
+     *     {@linkplain SingularListener#concurrent() Concurrent} and {@linkplain SingularListener#async() async}
+     *     listeners run one by one on the invoking thread, which is already off this bus's thread.
+     * </p>
+     *
+     * @param eventType the event type to compile the registry for.
+     * @return the registry, which only finishes the event if there are no enabled listeners of the event type.
+     * @param <EVENT> the event type to compile the registry for.
+     * @see net.mine_diver.unsafeevents.queue.EventPipeline
+     */
+    public <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> compileDetachedRegistry(final @NotNull Class<EVENT> eventType) {
+        return compileDetachedRegistry(eventType, false);
+    }
+
+    private <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> compileDetachedRegistry(
+            final @NotNull Class<EVENT> eventType,
+            final boolean partitionSafe
+    ) {
+        val disabledRegistry = getDisabledRegistry(eventType);
+        if (disabledRegistry != null) return disabledRegistry;
+        val finish = !Event.isFinishNoop(eventType);
+        //noinspection unchecked
+        val noListeners = (Consumer<EVENT>) (finish ? DEAD_EVENT_FALLBACK : NO_LISTENERS);
+        //noinspection unchecked
+        val registeredListeners = (SingularListener<EVENT>[]) listeners.get(eventType);
+        if (registeredListeners == null) return noListeners;
+        final SingularListener<?>[] listenerContainers = Arrays.stream(registeredListeners)
+                .filter(listener -> isGroupEnabled(listener.group()))
+                .toArray(SingularListener[]::new);
+        if (listenerContainers.length == 0) return noListeners;
+        if (partitionSafe) for (val listener : listenerContainers)
+            if (!listener.partitionSafe()) throw new IllegalStateException(String.format(
+                    "Listener %s of %s isn't partition-safe!",
+                    listener, eventType.getName()
+            ));
+        PhaseOrdering.of(eventType).sortListeners(listenerContainers);
+        //noinspection unchecked
+        final Consumer<EVENT>[] sortedListeners = Arrays.stream(listenerContainers)
+                .map(SingularListener::listener)
+                .toArray(Consumer[]::new);
+        return sortedListeners.length == 1 && !finish ? sortedListeners[0] : ListenerRegistryFactory.create(sortedListeners, finish);
+    }
+
+    /**
+     * Enables or disables a group of listeners.
+     *
+     * <p>
+     *     Listeners of a disabled group stay registered, but are left out
+     *     of the compiled registries, so dispatch doesn't check anything.
+     *     Only the registries of event types with listeners in the group
+     *     are recompiled, on their next dispatch.
+     * </p>
+     *
+     * @param group the group to toggle.
+     * @param enabled whether the group must be enabled.
+     * @see SingularListener#group()
+     */
+    public void setGroupEnabled(final @NotNull String group, final boolean enabled) {
+        if (handOff(() -> setGroupEnabled(group, enabled))) return;
+        if (!(enabled ? disabledGroups.remove(group) : disabledGroups.add(group))) return;
+        for (val entry : Reference2ReferenceMaps.fastIterable(listeners))
+            for (val listener : entry.getValue())
+                if (group.equals(listener.group())) {
+                    invalidatedRegistries.add(entry.getKey());
+                    invalidated = true;
+                    break;
+                }
+    }
+
+    /**
+     * Returns whether listeners of the specified group are dispatched.
+     *
+     * @param group the group to check, or null for listeners without a group.
+     * @return whether the group is enabled.
+     */
+    public boolean isGroupEnabled(final @Nullable String group) {
+        return group == null || !disabledGroups.contains(group);
+    }
+
+    /**
+     * Returns a registry that replaces the registry of the specified event type,
+     * for example to make its dispatch throw.
+     *
+     * <p>
+     *     Checked whenever the event type's registry is compiled or reset,
+     *     so implementations that change the returned value must call
+     *     {@link #resetRegistry(Class)} or {@link #resetRegistries()} afterwards.
+     *     The dispatch itself doesn't check anything.
+     * </p>
+     *
+     * @param eventType the event type.
+     * @return the replacement registry, or null to compile the event type's listeners as usual.
+     * @param <EVENT> the event type.
+     */
+    protected <EVENT extends Event> @Nullable Consumer<@NotNull EVENT> getDisabledRegistry(final @NotNull Class<EVENT> eventType) {
+        return null;
+    }
+
+    /**
+     * Discards the registry of the specified event type.
+     *
+     * <p>
+     *     The registry is replaced with the one from {@link #getDisabledRegistry(Class)} if present,
+     *     otherwise it's scheduled for recompilation if the event type has listeners,
+     *     or set back to the {@link DeadEvent} notifier.
+     * </p>
+     *
+     * @param eventType the event type whose registry must be reset.
+     */
+    protected void resetRegistry(final @NotNull Class<? extends Event> eventType) {
+        val eventId = Event.getEventID(eventType);
+        if (eventId >= registriesArray.length) registries.resizeArray(eventId + 1);
+        phaseRangeRegistries.remove(eventId);
+        updateListened(eventType);
+        val disabledRegistry = getDisabledRegistry(eventType);
+        if (disabledRegistry != null) registries.put(eventId, disabledRegistry);
+        else if (listeners.containsKey(eventType)) scheduleCompilation(eventType);
+        else registries.put(eventId, eventId == DeadEvent.ID ? DEAD_EVENT_FALLBACK : DEAD_EVENT);
+    }
+
+    /**
+     * Discards all registries of this bus.
+     *
+     * <p>
+     *     The registries are reset in place, which is only safe on the thread
+     *     that dispatches, that is, the owner thread if there is one.
+     *     Changes made from other threads must be handed off with {@link #handOff(Runnable)} first.
+     * </p>
+     *
+     * @see #resetRegistry(Class)
+     */
+    protected void resetRegistries() {
+        phaseRangeRegistries.clear();
+        listenedEvents.clear();
+        Arrays.fill(registriesArray, DEAD_EVENT);
+        resetRegistry(DeadEvent.class);
+        listeners.keySet().forEach(this::resetRegistry);
+    }
+
+    /**
+     * Starts recording dispatched event types into the specified profile.
+     *
+     * <p>
+     *     Registries are recompiled with counting wrappers, so only
+     *     event types that have listeners in this bus are recorded.
+     *     The wrappers are removed by {@link #stopProfiling()}.
+     * </p>
+     *
+     * @param profile the profile to record dispatches into.
+     * @see #warmUp(EventProfile)
+     */
+    public void startProfiling(final @NotNull EventProfile profile) {
+        if (handOff(() -> startProfiling(profile))) return;
+        this.profile = profile;
+        invalidateAll();
+    }
+
+    /**
+     * Stops recording dispatched event types.
+     *
+     * @return the profile that was recorded into, or null if profiling wasn't started.
+     * @see #startProfiling(EventProfile)
+     */
+    public @Nullable EventProfile stopProfiling() {
+        val profile = this.profile;
+        this.profile = null;
+        if (profile != null) invalidateAll();
+        return profile;
+    }
+
+    private void invalidateAll() {
+        invalidatedRegistries.addAll(listeners.keySet());
+        invalidated = true;
+    }
+
+    /**
+     * Compiles the registries of the event types recorded in the specified profile
+     * in parallel on {@link ForkJoinPool#commonPool()}, so their first dispatch doesn't pay for the compilation.
+     *
+     * <p>
+     *     Event types are resolved through the context class loader of the current thread.
+     *     Event types that can't be resolved are skipped.
+     * </p>
+     *
+     * @param profile the profile recorded during a previous run.
+     * @see #startProfiling(EventProfile)
+     * @see #declareEvents(Class[])
+     */
+    public void warmUp(final @NotNull EventProfile profile) {
+        warmUp(profile, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compiles the registries of the event types recorded in the specified profile
+     * in parallel on the specified pool, so their first dispatch doesn't pay for the compilation.
+     *
+     * <p>
+     *     Event types are resolved through the context class loader of the current thread.
+     *     Event types that can't be resolved are skipped.
+     * </p>
+     *
+     * @param profile the profile recorded during a previous run.
+     * @param pool the pool to compile the registries on.
+     * @see #startProfiling(EventProfile)
+     * @see #declareEvents(ForkJoinPool, Class[])
+     */
+    public void warmUp(final @NotNull EventProfile profile, final @NotNull ForkJoinPool pool) {
+        val classLoader = Thread.currentThread().getContextClassLoader();
+        declareEvents(pool, profile.resolve(classLoader == null ? EventBus.class.getClassLoader() : classLoader));
+    }
+
+    /**
+     * Compiles the registries of the specified event types right away,
+     * instead of on their first dispatch.
+     *
+     * <p>
+     *     Event types without listeners in this bus only get their ID assigned
+     *     and a slot allocated in {@link #registriesArray}.
+     *     The rest are compiled in parallel on {@link ForkJoinPool#commonPool()}.
+     * </p>
+     *
+     * @param eventTypes the event types to compile the registries of.
+     * @see #warmUp(EventProfile)
+     */
+    @SafeVarargs
+    public final void declareEvents(final @NotNull Class<? extends Event> @NotNull ... eventTypes) {
+        declareEvents(ForkJoinPool.commonPool(), Arrays.asList(eventTypes));
+    }
+
+    /**
+     * Compiles the registries of the specified event types right away on the specified pool,
+     * instead of on their first dispatch.
+     *
+     * <p>
+     *     Event types without listeners in this bus only get their ID assigned
+     *     and a slot allocated in {@link #registriesArray}.
+     *     The rest are compiled in parallel on the pool.
+     * </p>
+     *
+     * @param pool the pool to compile the registries on.
+     * @param eventTypes the event types to compile the registries of.
+     * @see #warmUp(EventProfile, ForkJoinPool)
+     */
+    @SafeVarargs
+    public final void declareEvents(final @NotNull ForkJoinPool pool, final @NotNull Class<? extends Event> @NotNull ... eventTypes) {
+        declareEvents(pool, Arrays.asList(eventTypes));
+    }
+
+    private void declareEvents(
+            final @NotNull ForkJoinPool pool,
+            final @NotNull Iterable<@NotNull Class<? extends Event>> eventTypes
+    ) {
+        if (isInvalidated()) compileRegistries();
+        val listenedTypes = new ArrayList<Class<? extends Event>>();
+        for (val eventType : eventTypes) {
+            val eventId = Event.getEventID(eventType);
+            if (eventId >= registriesArray.length) registries.resizeArray(eventId + 1);
+            if (listeners.containsKey(eventType)) listenedTypes.add(eventType);
+        }
+        compileParallel(listenedTypes, pool);
     }
 
     /**
@@ -321,7 +1144,8 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      *
      * <p>
      *     Invalidates current ordering of an event's listeners.
-     *     Only invoked if an event's phase ordering was changed
+     *     Only invoked if the phase ordering of an event type this bus
+     *     has listeners for was changed
      *     by a third party. {@link EventPhases}-defined phases don't
      *     need this.
      * </p>
@@ -333,6 +1157,8 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
     @Override
     @ApiStatus.Internal
     public <EVENT extends Event> void phaseOrderingInvalidated(final PhaseOrdering<EVENT> ordering) {
+        // phase orderings can be changed from any thread
+        if (handOff(() -> phaseOrderingInvalidated(ordering))) return;
         if (listeners.containsKey(ordering.eventType)) {
             invalidatedRegistries.add(ordering.eventType);
             invalidated = true;
@@ -347,39 +1173,283 @@ public class EventBus implements MutableEventBus, PhaseOrderingInvalidationCallb
      * </p>
      *
      * <p>
-     *     If the bus state is invalidated, the invalidated high performance registries are recompiled.
+     *     If the bus state is invalidated, the invalidated high performance registries
+     *     are scheduled for recompilation on their next dispatch.
      *     If the event ID exceeds {@link #registriesArray} length, the array is resized.
      *     Both checks are simple and don't add too much overhead to the dispatch.
      * </p>
      *
      * <p>
-     *     After the dispatch, {@link Event#finish()} is executed,
+     *     After the dispatch, {@link Event#finish()} is executed by the registry itself,
      *     allowing the event to perform some post-dispatch action,
      *     for example, a clean up of event parameters.
+     *     Event types that don't override {@link Event#finish()}
+     *     get registries that skip the call entirely.
      * </p>
      *
      * @param event the event to dispatch to this bus's listeners.
      * @return the dispatched event.
      * @param <EVENT> the event type.
      * @throws DispatchException if a listener throws during dispatch.
+     * @throws IllegalDispatchException if dispatch of the event type is disabled. Not wrapped into {@link DispatchException}.
      */
     @Override
     @Contract("_ -> param1")
     @CanIgnoreReturnValue
     public <EVENT extends Event> @NotNull EVENT post(final @NotNull EVENT event) {
-        if (invalidated) compileRegistries(); // compiling high performance registries if the state is invalidated
+        if (isInvalidated()) compileRegistries(); // scheduling a recompile of high performance registries if the state is invalidated
         val eventId = event.getEventID();
         if (eventId >= registriesArray.length) registries.resizeArray(eventId + 1); // resizing the array to fit the new event id
         try {
             //noinspection unchecked
             ((Consumer<EVENT>) registriesArray[eventId]).accept(event); // dispatch
+        } catch (final IllegalDispatchException exception) {
+            throw exception;
+        } catch (final Throwable throwable) {
+            throw new DispatchException(String.format(
+                    "An exception occurred during a dispatch of %s to %s",
+                    event, this
+            ), throwable);
+        }
+        return event; // returning the event to allow for a one line check of a parameter in the event
+    }
+
+    /**
+     * Returns whether dispatching an event of the specified type would invoke any listeners.
+     *
+     * <p>
+     *     This is a check of a flag updated whenever the event type's registry is compiled or scheduled,
+     *     so it's as cheap as a dispatch of nothing.
+     *     Listeners in disabled groups don't count, while event types
+     *     with dispatch disabled are reported as listened to, so their dispatch still fails.
+     * </p>
+     *
+     * @param eventType the event type to check.
+     * @return whether the event type has listeners in this bus.
+     * @see #post(Class, EventMaker)
+     */
+    public boolean hasListeners(final @NotNull Class<? extends Event> eventType) {
+        if (isInvalidated()) compileRegistries();
+        return listenedEvents.get(Event.getEventID(eventType));
+    }
+
+    /**
+     * Conditional dispatch method.
+     *
+     * <p>
+     *     Only makes and dispatches the event if the event type has listeners in this bus,
+     *     allowing to skip building events nobody listens to.
+     *     {@link DeadEvent} isn't dispatched for skipped events.
+     * </p>
+     *
+     * @param eventType the event type.
+     * @param eventMaker the maker of the event to dispatch.
+     * @return the dispatched event, or null if there were no listeners and the event wasn't made.
+     * @param <EVENT> the event type.
+     * @throws DispatchException if a listener throws during dispatch.
+     * @see #hasListeners(Class)
+     */
+    @CanIgnoreReturnValue
+    public <EVENT extends Event> @Nullable EVENT post(
+            final @NotNull Class<EVENT> eventType,
+            final @NotNull EventMaker<@NotNull EVENT> eventMaker
+    ) {
+        return hasListeners(eventType) ? post(eventMaker.make()) : null;
+    }
+
+    /**
+     * Sets the pool that batches of concurrent listeners are dispatched on.
+     *
+     * <p>
+     *     All registries are recompiled on their next dispatch.
+     *     {@link ForkJoinPool#commonPool()} is used by default.
+     * </p>
+     *
+     * @param pool the pool to dispatch concurrent listeners on.
+     * @see SingularListener#concurrent()
+     */
+    public void setConcurrentListenerPool(final @NotNull ForkJoinPool pool) {
+        if (handOff(() -> setConcurrentListenerPool(pool))) return;
+        if (concurrentListenerPool == pool) return;
+        concurrentListenerPool = pool;
+        invalidateAll();
+    }
+
+    /**
+     * Returns the pool that batches of concurrent listeners are dispatched on.
+     *
+     * @return the pool of concurrent listeners.
+     * @see #setConcurrentListenerPool(ForkJoinPool)
+     */
+    public @NotNull ForkJoinPool getConcurrentListenerPool() {
+        return concurrentListenerPool;
+    }
+
+    /**
+     * Sets the executor that async listeners are dispatched on.
+     *
+     * <p>
+     *     All registries are recompiled on their next dispatch.
+     *     By default, a shared pool of daemon threads is used, twice as many as there are processors, but at least 4.
+     *     Listeners beyond that wait for a free thread, so listeners that block for long should get an executor sized for them.
+     * </p>
+     *
+     * @param executor the executor to dispatch async listeners on.
+     * @see SingularListener#async()
+     */
+    public void setAsyncListenerExecutor(final @NotNull Executor executor) {
+        if (handOff(() -> setAsyncListenerExecutor(executor))) return;
+        if (asyncListenerExecutor == executor) return;
+        asyncListenerExecutor = executor;
+        invalidateAll();
+    }
+
+    /**
+     * Sets the hook that's called once all async listeners of a dispatch are done.
+     *
+     * <p>
+     *     The hook accepts the event and the first exception thrown by the async listeners,
+     *     or null if there were none. It's called on the thread of the last async listener,
+     *     right before the event is {@linkplain Event#finish() finished}.
+     *     Without a hook, exceptions go to the thread's uncaught exception handler.
+     * </p>
+     *
+     * <p>
+     *     All registries are recompiled on their next dispatch.
+     * </p>
+     *
+     * @param completionHook the completion hook, or null to remove it.
+     * @see SingularListener#async()
+     */
+    public void setAsyncCompletionHook(final @Nullable BiConsumer<? super @NotNull Event, ? super @Nullable Throwable> completionHook) {
+        if (handOff(() -> setAsyncCompletionHook(completionHook))) return;
+        if (asyncCompletionHook == completionHook) return;
+        asyncCompletionHook = completionHook;
+        invalidateAll();
+    }
+
+    /**
+     * Phase range dispatch method.
+     *
+     * <p>
+     *     Invokes only the listeners of the specified event whose phases
+     *     are ordered from {@code fromPhase} to {@code toPhase}, both inclusive,
+     *     in the event type's {@link PhaseOrdering}. For example,
+     *     {@code post(event, "pre", "pre")} only runs the "pre" phase.
+     * </p>
+     *
+     * <p>
+     *     Registries for phase ranges are compiled on first use and cached
+     *     until the event type's registry is invalidated, so a partial dispatch
+     *     costs about as much as running the selected listeners.
+     *     {@link #post(Event)} isn't affected.
+     * </p>
+     *
+     * <p>
+     *     Unlike {@link #post(Event)}, {@link Event#finish()} isn't executed,
+     *     as a phase range is usually a part of a larger dispatch.
+     *     {@link DeadEvent} isn't dispatched either if there are no listeners.
+     *     {@linkplain SingularListener#concurrent() Concurrent} and {@linkplain SingularListener#async() async}
+     *     listeners run one by one on this thread, since the range has no completion to hand the event off with.
+     * </p>
+     *
+     * @param event the event to dispatch to this bus's listeners.
+     * @param fromPhase the first phase to dispatch.
+     * @param toPhase the last phase to dispatch.
+     * @return the dispatched event.
+     * @param <EVENT> the event type.
+     * @throws IllegalArgumentException if {@code fromPhase} is ordered after {@code toPhase}.
+     * @throws DispatchException if a listener throws during dispatch.
+     * @throws IllegalDispatchException if dispatch of the event type is disabled. Not wrapped into {@link DispatchException}.
+     */
+    @Contract("_, _, _ -> param1")
+    @CanIgnoreReturnValue
+    public <EVENT extends Event> @NotNull EVENT post(
+            final @NotNull EVENT event,
+            final @NotNull String fromPhase,
+            final @NotNull String toPhase
+    ) {
+        if (isInvalidated()) compileRegistries();
+        val eventId = event.getEventID();
+        var rangeRegistries = phaseRangeRegistries.get(eventId);
+        if (rangeRegistries == null) {
+            val eventType = event.getClass();
+            if (listeners.containsKey(eventType)) {
+                compileRegistry(eventType);
+                rangeRegistries = phaseRangeRegistries.get(eventId);
+            }
+            if (rangeRegistries == null) {
+                // either there are no listeners, or the event type is disabled
+                val disabledRegistry = getDisabledRegistry(eventType);
+                if (disabledRegistry != null) disabledRegistry.accept(event);
+                return event;
+            }
+        }
+        //noinspection unchecked
+        val registry = ((PhaseRangeRegistries<EVENT>) rangeRegistries).get(fromPhase, toPhase);
+        try {
+            registry.accept(event);
+        } catch (final IllegalDispatchException exception) {
+            throw exception;
         } catch (final Throwable throwable) {
             throw new DispatchException(String.format(
                     "An exception occurred during a dispatch of %s to %s",
                     event, this
             ), throwable);
         }
-        return MutableEventBus.super.post(event); // performing a finalization and returning the event to allow for a one line check of a parameter in the event
+        return event;
+    }
+
+    /**
+     * Sorted listeners of an event type split by phase,
+     * with cached registries for requested phase ranges.
+     *
+     * @param <EVENT> the event type.
+     * @see #post(Event, String, String)
+     */
+    @FieldDefaults(
+            level = AccessLevel.PRIVATE,
+            makeFinal = true
+    )
+    private static final class PhaseRangeRegistries<EVENT extends Event> {
+        private static final @NotNull Consumer<? extends @NotNull Event> EMPTY = event -> {};
+
+        @NotNull PhaseOrdering<EVENT> ordering;
+        @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners;
+        int @NotNull [] phaseOffsets;
+        @NotNull Long2ReferenceMap<@NotNull Consumer<@NotNull EVENT>> ranges = new Long2ReferenceOpenHashMap<>();
+
+        private PhaseRangeRegistries(
+                final @NotNull PhaseOrdering<EVENT> ordering,
+                final @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners,
+                final int @NotNull [] phaseOffsets
+        ) {
+            this.ordering = ordering;
+            this.listeners = listeners;
+            this.phaseOffsets = phaseOffsets;
+        }
+
+        private @NotNull Consumer<@NotNull EVENT> get(
+                final @NotNull String fromPhase,
+                final @NotNull String toPhase
+        ) {
+            val fromRank = ordering.getPhaseRank(fromPhase);
+            val toRank = ordering.getPhaseRank(toPhase);
+            if (fromRank > toRank) throw new IllegalArgumentException(String.format(
+                    "Phase %s is ordered after phase %s in %s!",
+                    fromPhase, toPhase, ordering.eventType.getName()
+            ));
+            val start = phaseOffsets[fromRank];
+            val end = phaseOffsets[toRank + 1];
+            return ranges.computeIfAbsent((long) start << 32 | end, range -> {
+                //noinspection unchecked
+                return switch (end - start) {
+                    case 0 -> (Consumer<EVENT>) EMPTY;
+                    case 1 -> listeners[start];
+                    default -> ListenerRegistryFactory.create(Arrays.copyOfRange(listeners, start, end), false);
+                };
+            });
+        }
     }
 
 
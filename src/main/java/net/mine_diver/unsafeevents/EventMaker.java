@@ -31,6 +31,7 @@ import org.jetbrains.annotations.NotNull;
  * is an event maker and can decorate the event with data to dispatch it.
  *
  * @param <EVENT> the type of event that the maker decorates.
+ * @see EventBus#post(Class, EventMaker)
  * @author mine_diver
  */
 @FunctionalInterface
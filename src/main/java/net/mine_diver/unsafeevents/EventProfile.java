@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents;
+
+import it.unimi.dsi.fastutil.objects.Object2ReferenceLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ReferenceMap;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records which event types were dispatched, and how often.
+ *
+ * <p>
+ *     A profile can be recorded by an {@link EventBus} through
+ *     {@link EventBus#startProfiling(EventProfile)}, saved to a small text file,
+ *     loaded on the next start and passed to {@link EventBus#warmUp(EventProfile)}
+ *     to compile the registries of the most dispatched event types ahead of time.
+ * </p>
+ *
+ * <p>
+ *     Event types are stored by name, as event IDs differ between starts.
+ *     Counting isn't synchronized, so counts of event types dispatched
+ *     concurrently are approximate.
+ * </p>
+ *
+ * @see EventBus#startProfiling(EventProfile)
+ * @see EventBus#warmUp(EventProfile)
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public final class EventProfile {
+    /**
+     * Dispatch counters by event type name.
+     */
+    @NotNull Object2ReferenceMap<@NotNull String, @NotNull Counter> counters = new Object2ReferenceLinkedOpenHashMap<>();
+
+    /**
+     * Loads a profile saved with {@link #save(Path)}.
+     *
+     * <p>
+     *     Malformed lines are ignored, as a profile is only advisory.
+     * </p>
+     *
+     * @param file the profile file.
+     * @return the loaded profile.
+     * @throws IOException if the file can't be read.
+     */
+    public static @NotNull EventProfile load(final @NotNull Path file) throws IOException {
+        val profile = new EventProfile();
+        for (val line : Files.readAllLines(file)) {
+            val separator = line.indexOf(' ');
+            if (separator < 1) continue;
+            try {
+                profile.counter(line.substring(separator + 1).trim()).count += Long.parseLong(line.substring(0, separator));
+            } catch (final NumberFormatException ignored) {}
+        }
+        return profile;
+    }
+
+    /**
+     * Saves this profile, with the most dispatched event types first.
+     *
+     * @param file the profile file.
+     * @throws IOException if the file can't be written.
+     */
+    public void save(final @NotNull Path file) throws IOException {
+        val entries = sortedEntries();
+        val lines = new ArrayList<String>(entries.size());
+        for (val entry : entries) lines.add(entry.count() + " " + entry.eventType());
+        Files.write(file, lines);
+    }
+
+    /**
+     * Returns the recorded dispatch count of the specified event type.
+     *
+     * @param eventType the event type.
+     * @return how many times the event type was dispatched.
+     */
+    public long getCount(final @NotNull Class<? extends Event> eventType) {
+        final @Nullable Counter counter;
+        synchronized (counters) {
+            counter = counters.get(eventType.getName());
+        }
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * Resolves the recorded event types, with the most dispatched ones first.
+     *
+     * <p>
+     *     Event types that can't be found in the class loader are skipped.
+     * </p>
+     *
+     * @param classLoader the class loader to resolve the event types with.
+     * @return the recorded event types.
+     */
+    public @NotNull List<@NotNull Class<? extends Event>> resolve(final @NotNull ClassLoader classLoader) {
+        val entries = sortedEntries();
+        val eventTypes = new ArrayList<Class<? extends Event>>(entries.size());
+        for (val entry : entries)
+            try {
+                val type = Class.forName(entry.eventType(), false, classLoader);
+                if (Event.class.isAssignableFrom(type)) eventTypes.add(type.asSubclass(Event.class));
+            } catch (final ClassNotFoundException | LinkageError ignored) {}
+        return eventTypes;
+    }
+
+    /**
+     * Snapshots the counters under the same lock {@link #counter(String)} takes,
+     * so profiles can be saved while a bus is still recording.
+     *
+     * <p>
+     *     The counts are copied as well, as recording keeps incrementing them
+     *     and sorting by changing keys may fail.
+     * </p>
+     */
+    private @NotNull List<@NotNull Entry> sortedEntries() {
+        final List<Entry> entries;
+        synchronized (counters) {
+            entries = new ArrayList<>(counters.size());
+            for (val entry : counters.object2ReferenceEntrySet()) entries.add(new Entry(entry.getKey(), entry.getValue().count));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries;
+    }
+
+    private @NotNull Counter counter(final @NotNull String eventType) {
+        synchronized (counters) {
+            return counters.computeIfAbsent(eventType, name -> new Counter());
+        }
+    }
+
+    /**
+     * Wraps a registry into one that counts its dispatches.
+     *
+     * @param eventType the event type of the registry.
+     * @param registry the registry to wrap.
+     * @return the counting registry.
+     * @param <EVENT> the event type.
+     */
+    <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> record(
+            final @NotNull Class<EVENT> eventType,
+            final @NotNull Consumer<@NotNull EVENT> registry
+    ) {
+        val counter = counter(eventType.getName());
+        return event -> {
+            counter.count++;
+            registry.accept(event);
+        };
+    }
+
+    /**
+     * A snapshot of an event type's dispatch count.
+     *
+     * @param eventType the event type name.
+     * @param count the dispatch count.
+     */
+    private record Entry(@NotNull String eventType, long count) {}
+
+    /**
+     * A mutable dispatch counter.
+     */
+    private static final class Counter {
+        long count;
+    }
+}
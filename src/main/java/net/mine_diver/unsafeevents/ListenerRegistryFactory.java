@@ -26,6 +26,7 @@ package net.mine_diver.unsafeevents;
 
 import lombok.experimental.UtilityClass;
 import lombok.val;
+import net.mine_diver.unsafeevents.util.BytecodeCache;
 import org.jetbrains.annotations.NotNull;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
@@ -57,14 +58,19 @@ class ListenerRegistryFactory {
      * Generates and defines a high performance executor.
      *
      * @param registrySize the registry size.
+     * @param finish whether the registry must invoke {@link Event#finish()} after the listeners.
      * @return the high performance listener registry class.
      */
-    private <EVENT extends Event> @NotNull Class<? extends Consumer<@NotNull EVENT>> generateExecutor(final int registrySize) {
+    private <EVENT extends Event> @NotNull Class<? extends Consumer<@NotNull EVENT>> generateExecutor(final int registrySize, final boolean finish) {
         try {
             //noinspection unchecked
             return (Class<? extends Consumer<@NotNull EVENT>>)
                     MethodHandles.lookup().defineHiddenClass(
-                            generateExecutorClass(registrySize),
+                            BytecodeCache.get(
+                                    "registry|" + registrySize + "|" + finish,
+                                    () -> generateExecutorClass(registrySize, finish),
+                                    ListenerRegistryFactory.class
+                            ),
                             true, MethodHandles.Lookup.ClassOption.NESTMATE
                     ).lookupClass().asSubclass(Consumer.class);
         } catch (final IllegalAccessException e) {
@@ -76,9 +82,10 @@ class ListenerRegistryFactory {
      * Generates the registry class's bytecode.
      *
      * @param registrySize the registry size.
+     * @param finish whether the registry must invoke {@link Event#finish()} after the listeners.
      * @return the byte array containing the class's bytecode.
      */
-    private byte @NotNull [] generateExecutorClass(final int registrySize) {
+    private byte @NotNull [] generateExecutorClass(final int registrySize, final boolean finish) {
         val writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
         writer.visit(V1_8, ACC_PUBLIC, ListenerRegistryFactory.CLASS_NAME, null, "java/lang/Object", new String[] { Type.getInternalName(Consumer.class) });
         // Generate fields
@@ -108,6 +115,12 @@ class ListenerRegistryFactory {
             methodGenerator.visitVarInsn(ALOAD, 1);
             methodGenerator.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Consumer.class), "accept", "(Ljava/lang/Object;)V", true);
         }
+        if (finish) {
+            // the registry is in the same package as the event, so the protected method is accessible
+            methodGenerator.visitVarInsn(ALOAD, 1);
+            methodGenerator.visitTypeInsn(CHECKCAST, Type.getInternalName(Event.class));
+            methodGenerator.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(Event.class), "finish", "()V", false);
+        }
         methodGenerator.visitInsn(RETURN);
         methodGenerator.visitMaxs(-1, -1);
         methodGenerator.visitEnd();
@@ -118,22 +131,34 @@ class ListenerRegistryFactory {
     /**
      * Creates a high performance listener registry.
      *
+     * <p>
+     *     If {@code finish} is true, the registry invokes {@link Event#finish()}
+     *     after all listeners, so the dispatcher doesn't have to.
+     * </p>
+     *
      * @param listeners the listeners to add to the registry.
+     * @param finish whether the registry must invoke {@link Event#finish()} after the listeners.
      * @return the high performance registry.
      * @param <EVENT> the event type.
      */
     <EVENT extends Event> @NotNull Consumer<@NotNull EVENT> create(
-            final @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners
+            final @NotNull Consumer<@NotNull EVENT> @NotNull [] listeners,
+            final boolean finish
     ) {
         if (listeners.length > 6553) {
             // it's impossible to generate a flat method
             // that invokes more than 2^16/10 listeners,
             // so we have to fall back to simple array iteration
-            return event -> {
-                for (val listener : listeners) listener.accept(event);
-            };
+            return finish ?
+                    event -> {
+                        for (val listener : listeners) listener.accept(event);
+                        event.finish();
+                    } :
+                    event -> {
+                        for (val listener : listeners) listener.accept(event);
+                    };
         }
-        val executorClass = ListenerRegistryFactory.<EVENT>generateExecutor(listeners.length);
+        val executorClass = ListenerRegistryFactory.<EVENT>generateExecutor(listeners.length, finish);
         try {
             return executorClass.getConstructor(Consumer[].class).newInstance((Object) listeners);
         } catch (final InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
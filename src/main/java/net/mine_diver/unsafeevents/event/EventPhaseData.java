@@ -12,4 +12,5 @@ class EventPhaseData {
 	final List<EventPhaseData> subsequentPhases = new ReferenceArrayList<>();
 	final List<EventPhaseData> previousPhases = new ReferenceArrayList<>();
 	int visitStatus = 0; // 0: not visited, 1: visiting, 2: visited
+	int index; // position in the sorted phases
 }
\ No newline at end of file
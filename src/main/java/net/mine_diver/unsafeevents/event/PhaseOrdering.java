@@ -1,6 +1,6 @@
 package net.mine_diver.unsafeevents.event;
 
-import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.Pair;
 import it.unimi.dsi.fastutil.objects.*;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
@@ -13,12 +13,14 @@ import net.mine_diver.unsafeevents.util.Util;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
 
@@ -27,31 +29,54 @@ import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
         makeFinal = true
 )
 public final class PhaseOrdering<EVENT extends Event> {
-    private static final @NotNull Reference2ReferenceMap<@NotNull Class<? extends Event>, @NotNull PhaseOrdering<?>> PHASE_ORDERING_STORAGE = new Reference2ReferenceOpenHashMap<>();
-    private static final @NotNull Function<@NotNull Class<? extends Event>, @NotNull PhaseOrdering<? extends Event>> PHASE_ORDERING_GENERATOR = PhaseOrdering::new;
+    /**
+     * Per-type phase orderings. A class value, so orderings can be looked up
+     * from registry compilation threads, and racing lookups agree on a single instance.
+     */
+    private static final @NotNull ClassValue<@NotNull PhaseOrdering<?>> PHASE_ORDERINGS = new ClassValue<>() {
+        @Override
+        protected @NotNull PhaseOrdering<?> computeValue(final @NotNull Class<?> type) {
+            return new PhaseOrdering<>(type.asSubclass(Event.class));
+        }
+    };
 
-    private static final Set<PhaseOrderingInvalidationCallback> INVALIDATION_LISTENERS = Util.newWeakSet();
+    private static final Set<PhaseOrderingInvalidationCallback> INVALIDATION_LISTENERS = Collections.synchronizedSet(Util.newWeakSet());
 
     public static <EVENT extends Event> PhaseOrdering<EVENT> of(final @NotNull Class<EVENT> eventType) {
         //noinspection unchecked
-        return (PhaseOrdering<EVENT>) PHASE_ORDERING_STORAGE.computeIfAbsent(eventType, PHASE_ORDERING_GENERATOR);
+        return (PhaseOrdering<EVENT>) PHASE_ORDERINGS.get(eventType);
     }
 
+    /**
+     * Adds a callback that's notified of phase ordering changes of all event types.
+     *
+     * <p>
+     *     Callbacks are weakly referenced.
+     *     Prefer {@link #subscribe(PhaseOrderingInvalidationCallback)}
+     *     on the orderings of the event types the callback is interested in.
+     * </p>
+     *
+     * @param listener the callback to add.
+     */
     public static void addInvalidationCallback(PhaseOrderingInvalidationCallback listener) {
         INVALIDATION_LISTENERS.add(listener);
     }
 
-    private static Comparator<SingularListener<?>> bakeComparator(final @NotNull List<@NotNull EventPhaseData> sortedPhases) {
-        val immutablePhases = sortedPhases.stream().map(eventPhaseData -> eventPhaseData.id).collect(ImmutableList.toImmutableList());
-        return Comparator.<SingularListener<?>, String>comparing(
-                GenericListener::phase,
-                Comparator.comparingInt(object -> {
-                    val index = immutablePhases.indexOf(object);
-                    return index < 0 ? Integer.MAX_VALUE : index;
-                })
-        ).thenComparing(
-                Comparator.comparingInt(GenericListener::priority).reversed()
-        );
+    private static final Comparator<GenericListener> PRIORITY_COMPARATOR = Comparator.comparingInt(GenericListener::priority).reversed();
+
+    private static Object2IntMap<String> bakePhaseRanks(final @NotNull List<@NotNull EventPhaseData> sortedPhases) {
+        val phaseRanks = new Object2IntOpenHashMap<String>(sortedPhases.size());
+        for (int i = 0; i < sortedPhases.size(); i++)
+            phaseRanks.put(sortedPhases.get(i).id, i);
+        // unknown phases go after all known ones
+        phaseRanks.defaultReturnValue(sortedPhases.size());
+        return phaseRanks;
+    }
+
+    private static Comparator<SingularListener<?>> bakeComparator(final @NotNull Object2IntMap<String> phaseRanks) {
+        return Comparator.<SingularListener<?>>comparingInt(
+                listener -> phaseRanks.getInt(listener.phase())
+        ).thenComparing(PRIORITY_COMPARATOR);
     }
 
     public Class<EVENT> eventType;
@@ -60,7 +85,24 @@ public final class PhaseOrdering<EVENT extends Event> {
 
     List<@NotNull EventPhaseData> sortedPhases = new ReferenceArrayList<>();
 
-    @NonFinal Comparator<SingularListener<?>> listenerComparator;
+    /**
+     * Whether {@link #sortedPhases} is in the canonical order of {@link PhaseSorting#sortPhases(List)}.
+     *
+     * <p>
+     *     Single orderings only keep the phases in a valid topological order,
+     *     which depends on the order the orderings were added in, so the canonical
+     *     order is restored once before the phase ranks are baked.
+     *     This way, both {@link #addPhaseOrdering(String, String)}
+     *     and {@link #addPhaseOrderings(Collection)} result in the same order.
+     * </p>
+     */
+    @NonFinal boolean canonical = true;
+
+    @NonFinal volatile Object2IntMap<String> phaseRanks;
+
+    @NonFinal volatile Comparator<SingularListener<?>> listenerComparator;
+
+    Set<PhaseOrderingInvalidationCallback> invalidationCallbacks = Collections.synchronizedSet(Util.newWeakSet());
 
     Consumer<PhaseOrderingInvalidationCallback> invalidationCallbackInvoker = callback -> callback.phaseOrderingInvalidated(this);
 
@@ -90,8 +132,104 @@ public final class PhaseOrdering<EVENT extends Event> {
 
     }
 
+    /**
+     * Adds a callback that's notified of changes of this phase ordering.
+     *
+     * <p>
+     *     Callbacks are weakly referenced, so short-lived subscribers
+     *     don't have to unsubscribe.
+     * </p>
+     *
+     * @param callback the callback to add.
+     */
+    public void subscribe(final @NotNull PhaseOrderingInvalidationCallback callback) {
+        invalidationCallbacks.add(callback);
+    }
+
+    /**
+     * Removes a callback added with {@link #subscribe(PhaseOrderingInvalidationCallback)}.
+     *
+     * @param callback the callback to remove.
+     */
+    public void unsubscribe(final @NotNull PhaseOrderingInvalidationCallback callback) {
+        invalidationCallbacks.remove(callback);
+    }
+
+    private void invalidate() {
+        phaseRanks = null;
+        listenerComparator = null;
+        INVALIDATION_LISTENERS.forEach(invalidationCallbackInvoker);
+        invalidationCallbacks.forEach(invalidationCallbackInvoker);
+    }
+
     public Comparator<SingularListener<?>> getListenerComparator() {
-        return Objects.requireNonNullElseGet(listenerComparator, () -> listenerComparator = bakeComparator(sortedPhases));
+        return Objects.requireNonNullElseGet(listenerComparator, () -> listenerComparator = bakeComparator(getPhaseRanks()));
+    }
+
+    private Object2IntMap<String> getPhaseRanks() {
+        var phaseRanks = this.phaseRanks;
+        if (phaseRanks == null)
+            // registries can be compiled in parallel, so only one thread sorts the phases
+            synchronized (sortedPhases) {
+                phaseRanks = this.phaseRanks;
+                if (phaseRanks == null) {
+                    if (!canonical) {
+                        PhaseSorting.sortPhases(sortedPhases);
+                        canonical = true;
+                    }
+                    this.phaseRanks = phaseRanks = bakePhaseRanks(sortedPhases);
+                }
+            }
+        return phaseRanks;
+    }
+
+    /**
+     * Returns the position of the specified phase in this ordering.
+     *
+     * @param phase the phase.
+     * @return the rank of the phase, or the number of phases if the phase is unknown.
+     */
+    public int getPhaseRank(final @NotNull String phase) {
+        return getPhaseRanks().getInt(phase);
+    }
+
+    /**
+     * Sorts the listeners in the same order as {@link #getListenerComparator()}.
+     *
+     * <p>
+     *     Listeners are distributed into buckets by phase rank in linear time,
+     *     then each bucket is sorted by priority, so the phase of each
+     *     listener is only looked up once.
+     * </p>
+     *
+     * <p>
+     *     The returned offsets allow dispatching a range of phases.
+     *     The listeners of the phase with rank {@code r} are located
+     *     from {@code offsets[r]} inclusive to {@code offsets[r + 1]} exclusive,
+     *     with listeners of phases unknown to this ordering having
+     *     the rank of {@link #getPhaseRank(String)} for an unknown phase.
+     * </p>
+     *
+     * @param listeners the listeners to sort in place.
+     * @return the offsets of each phase rank in the sorted listeners.
+     */
+    public int @NotNull [] sortListeners(final @NotNull SingularListener<?> @NotNull [] listeners) {
+        val phaseRanks = getPhaseRanks();
+        val bucketCount = phaseRanks.defaultReturnValue() + 1;
+        val listenerRanks = new int[listeners.length];
+        val bucketStarts = new int[bucketCount + 1];
+        for (int i = 0; i < listeners.length; i++)
+            bucketStarts[(listenerRanks[i] = phaseRanks.getInt(listeners[i].phase())) + 1]++;
+        for (int i = 1; i <= bucketCount; i++)
+            bucketStarts[i] += bucketStarts[i - 1];
+        val bucketOffsets = Arrays.copyOf(bucketStarts, bucketCount);
+        val unsorted = listeners.clone();
+        for (int i = 0; i < unsorted.length; i++)
+            listeners[bucketOffsets[listenerRanks[i]]++] = unsorted[i];
+        for (int bucket = 0; bucket < bucketCount; bucket++)
+            if (bucketStarts[bucket + 1] - bucketStarts[bucket] > 1)
+                Arrays.sort(listeners, bucketStarts[bucket], bucketStarts[bucket + 1], PRIORITY_COMPARATOR);
+        return bucketStarts;
     }
 
     private EventPhaseData getOrCreatePhase(final @NotNull String id) {
@@ -99,8 +237,11 @@ public final class PhaseOrdering<EVENT extends Event> {
 
         if (phase == null) {
             phase = new EventPhaseData(id);
+            phase.index = sortedPhases.size();
             phases.put(id, phase);
             sortedPhases.add(phase);
+            canonical = false;
+            phaseRanks = null;
             listenerComparator = null;
         }
 
@@ -108,18 +249,79 @@ public final class PhaseOrdering<EVENT extends Event> {
     }
 
     public void addPhaseOrdering(final @NotNull String firstPhase, final @NotNull String secondPhase) {
-        Objects.requireNonNull(firstPhase, "Tried to add an ordering for a null phase.");
-        Objects.requireNonNull(secondPhase, "Tried to add an ordering for a null phase.");
-        if (firstPhase.equals(secondPhase))
-            throw new IllegalArgumentException("Tried to add a phase that depends on itself.");
+        checkPhaseOrdering(firstPhase, secondPhase);
 
         val first = getOrCreatePhase(firstPhase);
         val second = getOrCreatePhase(secondPhase);
+        // only reorders the phases between the two, throws before linking them if there's a cycle.
+        // a cycle needs both phases to be linked already, so no phases are created on failure
+        PhaseSorting.insertOrdering(sortedPhases, first, second);
         first.subsequentPhases.add(second);
         second.previousPhases.add(first);
-        PhaseSorting.sortPhases(sortedPhases);
-        listenerComparator = null;
+        canonical = false;
+        invalidate();
+    }
 
-        INVALIDATION_LISTENERS.forEach(invalidationCallbackInvoker);
+    /**
+     * Adds multiple phase orderings at once.
+     *
+     * <p>
+     *     Unlike calling {@link #addPhaseOrdering(String, String)} for each pair,
+     *     the phases are sorted once and the invalidation callbacks are notified once.
+     *     The resulting order is the same either way.
+     *     If the orderings introduce a cycle, none of them are added,
+     *     and phases created for them are removed.
+     * </p>
+     *
+     * @param orderings the pairs of phases, the left phase being ordered before the right one.
+     */
+    public void addPhaseOrderings(final @NotNull Collection<? extends @NotNull Pair<@NotNull String, @NotNull String>> orderings) {
+        if (orderings.isEmpty()) return;
+        for (val ordering : orderings)
+            checkPhaseOrdering(ordering.left(), ordering.right());
+
+        val previousOrder = new ReferenceArrayList<>(sortedPhases);
+        val wasCanonical = canonical;
+        val linked = new ReferenceArrayList<EventPhaseData>(orderings.size() * 2);
+        for (val ordering : orderings) {
+            val first = getOrCreatePhase(ordering.left());
+            val second = getOrCreatePhase(ordering.right());
+            first.subsequentPhases.add(second);
+            second.previousPhases.add(first);
+            linked.add(first);
+            linked.add(second);
+        }
+        try {
+            PhaseSorting.sortPhases(sortedPhases);
+        } catch (final IllegalStateException e) {
+            // unlinking the added orderings in reverse
+            for (int i = linked.size() - 2; i >= 0; i -= 2) {
+                val first = linked.get(i);
+                val second = linked.get(i + 1);
+                first.subsequentPhases.remove(first.subsequentPhases.lastIndexOf(second));
+                second.previousPhases.remove(second.previousPhases.lastIndexOf(first));
+            }
+            for (val phase : sortedPhases)
+                phase.visitStatus = 0;
+            // new phases were appended and the sort failed before reordering anything
+            for (int i = previousOrder.size(); i < sortedPhases.size(); i++)
+                phases.remove(sortedPhases.get(i).id);
+            sortedPhases.clear();
+            sortedPhases.addAll(previousOrder);
+            PhaseSorting.updateIndices(sortedPhases, 0);
+            canonical = wasCanonical;
+            phaseRanks = null;
+            listenerComparator = null;
+            throw e;
+        }
+        canonical = true;
+        invalidate();
+    }
+
+    private static void checkPhaseOrdering(final @NotNull String firstPhase, final @NotNull String secondPhase) {
+        Objects.requireNonNull(firstPhase, "Tried to add an ordering for a null phase.");
+        Objects.requireNonNull(secondPhase, "Tried to add an ordering for a null phase.");
+        if (firstPhase.equals(secondPhase))
+            throw new IllegalArgumentException("Tried to add a phase that depends on itself.");
     }
-}
+}
\ No newline at end of file
@@ -80,6 +80,101 @@ class PhaseSorting {
 				}
 			}
 		}
+
+		updateIndices(sortedPhases, 0);
+	}
+
+	/**
+	 * Incrementally maintain the order of sorted phases before an ordering of first before second is added,
+	 * using the Pearce-Kelly algorithm.
+	 * Only phases between the two in the current order are visited,
+	 * and the relative order of all other phases is kept.
+	 * Requires phase indices to match their positions in the list, which is kept true afterwards.
+	 * Throws without modifying anything if the ordering would introduce a cycle.
+	 */
+	static void insertOrdering(List<EventPhaseData> sortedPhases, EventPhaseData first, EventPhaseData second) {
+		int lowerBound = second.index;
+		int upperBound = first.index;
+
+		// Already in order, nothing to do.
+		if (lowerBound > upperBound) return;
+
+		// Collect phases reachable from the second phase that are currently ordered before the first one.
+		List<EventPhaseData> forward = new ArrayList<>();
+
+		try {
+			boundedForwardVisit(second, first, upperBound, forward);
+		} finally {
+			clearStatus(forward);
+		}
+
+		// Collect phases the first phase is reachable from that are currently ordered after the second one.
+		List<EventPhaseData> backward = new ArrayList<>();
+		boundedBackwardVisit(first, lowerBound, backward);
+		clearStatus(backward);
+
+		// Reuse the positions of both sets, placing the backward set before the forward set.
+		Comparator<EventPhaseData> byIndex = Comparator.comparingInt(phase -> phase.index);
+		forward.sort(byIndex);
+		backward.sort(byIndex);
+		int[] positions = new int[forward.size() + backward.size()];
+		int i = 0;
+
+		for (EventPhaseData phase : backward) {
+			positions[i++] = phase.index;
+		}
+
+		for (EventPhaseData phase : forward) {
+			positions[i++] = phase.index;
+		}
+
+		Arrays.sort(positions);
+		i = 0;
+
+		for (EventPhaseData phase : backward) {
+			phase.index = positions[i++];
+			sortedPhases.set(phase.index, phase);
+		}
+
+		for (EventPhaseData phase : forward) {
+			phase.index = positions[i++];
+			sortedPhases.set(phase.index, phase);
+		}
+	}
+
+	static void updateIndices(List<EventPhaseData> sortedPhases, int from) {
+		for (int i = from; i < sortedPhases.size(); i++) {
+			sortedPhases.get(i).index = i;
+		}
+	}
+
+	private static void boundedForwardVisit(EventPhaseData phase, EventPhaseData target, int upperBound, List<EventPhaseData> visited) {
+		if (phase == target) {
+			throw new IllegalStateException(String.format(
+					"Event phase ordering conflict detected.%nEvent phase %s is ordered both before and after event phase %s.",
+					target.id, visited.get(0).id
+			));
+		}
+
+		if (phase.visitStatus == 0 && phase.index <= upperBound) {
+			phase.visitStatus = 1;
+			visited.add(phase);
+
+			for (EventPhaseData data : phase.subsequentPhases) {
+				boundedForwardVisit(data, target, upperBound, visited);
+			}
+		}
+	}
+
+	private static void boundedBackwardVisit(EventPhaseData phase, int lowerBound, List<EventPhaseData> visited) {
+		if (phase.visitStatus == 0 && phase.index >= lowerBound) {
+			phase.visitStatus = 1;
+			visited.add(phase);
+
+			for (EventPhaseData data : phase.previousPhases) {
+				boundedBackwardVisit(data, lowerBound, visited);
+			}
+		}
 	}
 
 	private static void forwardVisit(EventPhaseData phase, EventPhaseData parent, List<EventPhaseData> toposort) {
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.eventbus;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import net.mine_diver.unsafeevents.DeadEvent;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * {@link EventBus} implementation that defers re-entrant dispatch.
+ *
+ * <p>
+ *     Events posted by listeners while this bus is dispatching on the same thread
+ *     aren't dispatched right away. Instead, they're appended to a thread-local
+ *     ring buffer, which is drained iteratively once the outermost dispatch finishes.
+ *     This keeps the stack depth constant regardless of how long the chains
+ *     of events posting other events are.
+ * </p>
+ *
+ * <p>
+ *     Ordering guarantees:
+ * </p>
+ * <ul>
+ *     <li>the outermost event is dispatched to all of its listeners
+ *     before any event posted during its dispatch;</li>
+ *     <li>deferred events are dispatched in the order they were posted,
+ *     so chains are processed breadth-first;</li>
+ *     <li>{@link #post(Event)} returns a deferred event before it's dispatched,
+ *     so its state can't be inspected by the poster;</li>
+ *     <li>if a listener throws, the events still deferred on that thread are dropped.</li>
+ * </ul>
+ *
+ * <p>
+ *     Event types marked through {@link #setSynchronous(Class, boolean)}
+ *     keep the usual recursive semantics. {@link DeadEvent} is always synchronous.
+ *     Phase range dispatch is never deferred.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PROTECTED,
+        makeFinal = true
+)
+public class DeferringEventBus extends EventBus {
+    /**
+     * The dispatch state of this bus on each thread.
+     */
+    @NotNull ThreadLocal<@NotNull DeferredEvents> deferredEvents = ThreadLocal.withInitial(DeferredEvents::new);
+
+    /**
+     * Event types that are dispatched right away even during an active dispatch.
+     */
+    @NotNull ReferenceSet<@NotNull Class<? extends Event>> synchronousTypes = new ReferenceOpenHashSet<>();
+
+    /**
+     * Sets whether the specified event type is dispatched right away
+     * when posted during an active dispatch.
+     *
+     * @param eventType the event type.
+     * @param synchronous whether the event type's re-entrant dispatch is synchronous.
+     */
+    public void setSynchronous(final @NotNull Class<? extends Event> eventType, final boolean synchronous) {
+        if (synchronous) synchronousTypes.add(eventType);
+        else synchronousTypes.remove(eventType);
+    }
+
+    /**
+     * Deferring dispatch.
+     *
+     * @param event the event to dispatch to this bus's listeners.
+     * @return the dispatched, or the deferred event.
+     * @param <EVENT> the event type.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    @Override
+    @Contract("_ -> param1")
+    @CanIgnoreReturnValue
+    public <EVENT extends Event> @NotNull EVENT post(final @NotNull EVENT event) {
+        val deferredEvents = this.deferredEvents.get();
+        if (deferredEvents.dispatching) {
+            if (event instanceof DeadEvent || synchronousTypes.contains(event.getClass())) return super.post(event);
+            deferredEvents.add(event);
+            return event;
+        }
+        deferredEvents.dispatching = true;
+        try {
+            super.post(event);
+            for (var deferredEvent = deferredEvents.poll(); deferredEvent != null; deferredEvent = deferredEvents.poll())
+                super.post(deferredEvent);
+        } finally {
+            deferredEvents.clear();
+            deferredEvents.dispatching = false;
+        }
+        return event;
+    }
+
+    /**
+     * A growable ring buffer of deferred events.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    protected static final class DeferredEvents {
+        /**
+         * Whether this bus is dispatching on the owning thread.
+         */
+        boolean dispatching;
+
+        @Nullable Event @NotNull [] events = new Event[16];
+
+        /**
+         * The index of the next event to poll.
+         */
+        int head;
+
+        /**
+         * The number of deferred events.
+         */
+        int size;
+
+        private void add(final @NotNull Event event) {
+            if (size == events.length) {
+                // unrolling the ring into a twice as large array
+                val grown = new Event[events.length << 1];
+                val headLength = events.length - head;
+                System.arraycopy(events, head, grown, 0, headLength);
+                System.arraycopy(events, 0, grown, headLength, head);
+                events = grown;
+                head = 0;
+            }
+            events[(head + size++) & (events.length - 1)] = event;
+        }
+
+        private @Nullable Event poll() {
+            if (size == 0) return null;
+            val event = events[head];
+            events[head] = null;
+            head = (head + 1) & (events.length - 1);
+            size--;
+            return event;
+        }
+
+        private void clear() {
+            if (size > 0) Arrays.fill(events, null);
+            head = size = 0;
+        }
+    }
+}
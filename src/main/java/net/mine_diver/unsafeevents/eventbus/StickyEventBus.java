@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.eventbus;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.EventMaker;
+import net.mine_diver.unsafeevents.MutableEventBus;
+import net.mine_diver.unsafeevents.event.Sticky;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link MutableEventBus} decorator that keeps the last instance of sticky event types
+ * and delivers it to listeners of that type registered afterwards.
+ *
+ * <p>
+ *     Events posted through {@link #postSticky(Event)}, and events of types annotated
+ *     with {@link Sticky} posted through {@link #post(Event)}, are kept even if there are no listeners.
+ *     Events posted to the decorated bus directly aren't seen by this decorator.
+ * </p>
+ *
+ * <p>
+ *     Late listeners are skipped if the decorated bus is an {@link EventBus} with their group disabled,
+ *     or a {@link ManagedEventBus} with dispatch of their event type disabled.
+ * </p>
+ *
+ * <p>
+ *     Not thread-safe. The last sticky event is delivered during {@link #register(SingularListener)}
+ *     on the registering thread, even if the decorated bus applies the registration later.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@RequiredArgsConstructor
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class StickyEventBus implements MutableEventBus {
+    /**
+     * Per-type cache of whether the event type is annotated with {@link Sticky}.
+     */
+    private static final @NotNull ClassValue<@NotNull Boolean> STICKY = new ClassValue<>() {
+        @Override
+        protected @NotNull Boolean computeValue(final @NotNull Class<?> type) {
+            return type.isAnnotationPresent(Sticky.class);
+        }
+    };
+
+    /**
+     * The bus events are dispatched to and listeners are registered in.
+     */
+    @NotNull MutableEventBus bus;
+
+    /**
+     * The last instances of sticky events, by event type.
+     */
+    @NotNull Reference2ReferenceMap<@NotNull Class<? extends Event>, @NotNull Event> stickyEvents = new Reference2ReferenceOpenHashMap<>();
+
+    /**
+     * Registers a singular listener in the decorated bus
+     * and delivers the last sticky event of its type to it.
+     *
+     * @param listener the listener to register.
+     * @param <EVENT> the event type the listener accepts.
+     * @throws DispatchException if the listener throws.
+     */
+    @Override
+    public <EVENT extends Event> void register(final @NotNull SingularListener<@NotNull EVENT> listener) {
+        bus.register(listener);
+        val eventType = listener.eventType();
+        val event = stickyEvents.get(eventType);
+        if (event == null) return;
+        // skipping listeners the decorated bus wouldn't dispatch to
+        if (bus instanceof EventBus eventBus && !eventBus.isGroupEnabled(listener.group())) return;
+        if (bus instanceof ManagedEventBus managedBus && managedBus.isDispatchDisabled(eventType)) return;
+        try {
+            listener.listener().accept(eventType.cast(event));
+        } catch (final Throwable throwable) {
+            throw new DispatchException(String.format(
+                    "An exception occurred during a sticky dispatch of %s to %s",
+                    event, bus
+            ), throwable);
+        }
+    }
+
+    /**
+     * Unregisters a singular listener from the decorated bus.
+     *
+     * @param listener the listener to unregister.
+     * @param <EVENT> the event type the listener accepts.
+     */
+    @Override
+    public <EVENT extends Event> void unregister(final @NotNull SingularListener<@NotNull EVENT> listener) {
+        bus.unregister(listener);
+    }
+
+    /**
+     * Dispatches the event to the decorated bus,
+     * keeping it first if its type is annotated with {@link Sticky}.
+     *
+     * @param event the event to dispatch.
+     * @return the dispatched event.
+     * @param <EVENT> the event type.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    @Override
+    @Contract("_ -> param1")
+    @CanIgnoreReturnValue
+    public <EVENT extends Event> @NotNull EVENT post(final @NotNull EVENT event) {
+        if (STICKY.get(event.getClass())) stickyEvents.put(event.getClass(), event);
+        return bus.post(event);
+    }
+
+    /**
+     * Sticky dispatch method.
+     *
+     * <p>
+     *     Dispatches the event and keeps it, so listeners of its type
+     *     registered afterwards receive it during their registration.
+     * </p>
+     *
+     * <p>
+     *     The event is kept after {@link Event#finish()},
+     *     so events reused through an {@link EventMaker} shouldn't be sticky.
+     * </p>
+     *
+     * @param event the event to dispatch and keep.
+     * @return the dispatched event.
+     * @param <EVENT> the event type.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    @Contract("_ -> param1")
+    @CanIgnoreReturnValue
+    public <EVENT extends Event> @NotNull EVENT postSticky(final @NotNull EVENT event) {
+        stickyEvents.put(event.getClass(), event);
+        return bus.post(event);
+    }
+
+    /**
+     * Returns the last sticky event of the specified type.
+     *
+     * @param eventType the event type.
+     * @return the last sticky event, or null if there's none.
+     * @param <EVENT> the event type.
+     */
+    public <EVENT extends Event> @Nullable EVENT getStickyEvent(final @NotNull Class<EVENT> eventType) {
+        return eventType.cast(stickyEvents.get(eventType));
+    }
+
+    /**
+     * Forgets the last sticky event of the specified type.
+     *
+     * @param eventType the event type.
+     */
+    public void removeStickyEvent(final @NotNull Class<? extends Event> eventType) {
+        stickyEvents.remove(eventType);
+    }
+}
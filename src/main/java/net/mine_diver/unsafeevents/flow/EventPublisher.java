@@ -0,0 +1,322 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.flow;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Flow.Publisher} of events of a single type dispatched by an {@link EventBus}.
+ *
+ * <p>
+ *     Each subscription registers a listener of the event type, which passes events
+ *     through a fixed-size ring, delivering them to the subscriber right away while there's demand,
+ *     and keeping them until it's requested otherwise. When the ring is full, the {@link OverflowPolicy} decides what happens.
+ *     Neither delivering nor buffering allocates.
+ * </p>
+ *
+ * <p>
+ *     Subscribing must be done on the bus's thread, as it registers a listener.
+ *     Subscriptions can be cancelled from any thread. If the bus has an {@linkplain EventBus#setOwner(Thread) owner},
+ *     cancelling unregisters the listener right away, handing it off to the owner if needed.
+ *     Otherwise, the bus's thread can't be told, so the listener stays registered
+ *     until the next dispatch of the event type unregisters it.
+ * </p>
+ *
+ * <p>
+ *     Buffered events are delivered after their dispatch is done,
+ *     so event types that are reused or reset in {@link Event#finish()}
+ *     must be copied by the subscriber, or published without buffering.
+ * </p>
+ *
+ * @param <EVENT> the event type.
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public final class EventPublisher<EVENT extends Event> implements Flow.Publisher<EVENT> {
+    /**
+     * The default duration {@link OverflowPolicy#BLOCK} waits for room in the buffer.
+     */
+    public static final @NotNull Duration DEFAULT_BLOCK_TIMEOUT = Duration.ofSeconds(1);
+
+    @NotNull EventBus bus;
+    @NotNull Class<EVENT> eventType;
+    int bufferSize;
+    @NotNull OverflowPolicy overflowPolicy;
+
+    /**
+     * How long {@link OverflowPolicy#BLOCK} waits for room in the buffer, in nanoseconds.
+     */
+    long blockTimeoutNanos;
+
+    /**
+     * Creates a publisher buffering up to {@link Flow#defaultBufferSize()} events per subscription
+     * and dropping the oldest ones on overflow.
+     *
+     * @param bus the bus to subscribe to.
+     * @param eventType the event type to publish.
+     */
+    public EventPublisher(
+            final @NotNull EventBus bus,
+            final @NotNull Class<EVENT> eventType
+    ) {
+        this(bus, eventType, Flow.defaultBufferSize(), OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Creates a publisher, blocking for up to {@link #DEFAULT_BLOCK_TIMEOUT} with {@link OverflowPolicy#BLOCK}.
+     *
+     * @param bus the bus to subscribe to.
+     * @param eventType the event type to publish.
+     * @param bufferSize the maximum number of events buffered per subscription.
+     * @param overflowPolicy what to do with events when the buffer is full.
+     * @throws IllegalArgumentException if {@code bufferSize} isn't positive.
+     */
+    public EventPublisher(
+            final @NotNull EventBus bus,
+            final @NotNull Class<EVENT> eventType,
+            final int bufferSize,
+            final @NotNull OverflowPolicy overflowPolicy
+    ) {
+        this(bus, eventType, bufferSize, overflowPolicy, DEFAULT_BLOCK_TIMEOUT);
+    }
+
+    /**
+     * Creates a publisher.
+     *
+     * @param bus the bus to subscribe to.
+     * @param eventType the event type to publish.
+     * @param bufferSize the maximum number of events buffered per subscription.
+     * @param overflowPolicy what to do with events when the buffer is full.
+     * @param blockTimeout how long {@link OverflowPolicy#BLOCK} waits for room in the buffer before dropping the event.
+     * @throws IllegalArgumentException if {@code bufferSize} isn't positive.
+     */
+    public EventPublisher(
+            final @NotNull EventBus bus,
+            final @NotNull Class<EVENT> eventType,
+            final int bufferSize,
+            final @NotNull OverflowPolicy overflowPolicy,
+            final @NotNull Duration blockTimeout
+    ) {
+        if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be positive, got " + bufferSize);
+        this.bus = bus;
+        this.eventType = eventType;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        blockTimeoutNanos = blockTimeout.toNanos();
+    }
+
+    @Override
+    public void subscribe(final @NotNull Flow.Subscriber<? super @NotNull EVENT> subscriber) {
+        val subscription = new EventSubscription<>(this, subscriber);
+        bus.register(subscription.listener);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * A subscription and its listener.
+     *
+     * <p>
+     *     Deliveries are serialized through {@link #wip}, so {@code onNext} is never called concurrently,
+     *     and the buffer is guarded by the subscription's monitor, which isn't held while delivering.
+     * </p>
+     *
+     * @param <EVENT> the event type.
+     */
+    @FieldDefaults(
+            level = AccessLevel.PRIVATE,
+            makeFinal = true
+    )
+    private static final class EventSubscription<EVENT extends Event> implements Flow.Subscription, Consumer<EVENT> {
+        @NotNull EventPublisher<EVENT> publisher;
+        @NotNull Flow.Subscriber<? super @NotNull EVENT> subscriber;
+        @NotNull SingularListener<@NotNull EVENT> listener;
+
+        /**
+         * The ring of buffered events.
+         */
+        @Nullable Object @NotNull [] buffer;
+        @NonFinal int head;
+        @NonFinal int size;
+
+        /**
+         * The outstanding demand. {@link Long#MAX_VALUE} means unbounded.
+         */
+        @NonFinal long requested;
+
+        /**
+         * The number of pending drain requests, only the thread that raises it from 0 delivers.
+         */
+        @NotNull AtomicInteger wip = new AtomicInteger();
+
+        @NonFinal volatile boolean cancelled;
+
+        /**
+         * Whether the listener was unregistered, so it's only done once.
+         */
+        @NotNull AtomicBoolean unregistered = new AtomicBoolean();
+
+        private EventSubscription(
+                final @NotNull EventPublisher<EVENT> publisher,
+                final @NotNull Flow.Subscriber<? super @NotNull EVENT> subscriber
+        ) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+            listener = SimpleSingularListener.<EVENT>builder()
+                    .eventType(publisher.eventType)
+                    .listener(this)
+                    .build();
+            buffer = new Object[publisher.bufferSize];
+        }
+
+        /**
+         * Listener method, called on the bus's thread.
+         *
+         * @param event the dispatched event.
+         */
+        @Override
+        public void accept(final @NotNull EVENT event) {
+            if (cancelled) {
+                unregister();
+                return;
+            }
+            synchronized (this) {
+                if (size == buffer.length) switch (publisher.overflowPolicy) {
+                    case DROP_NEWEST -> {
+                        return;
+                    }
+                    case DROP_OLDEST -> {
+                        buffer[head] = null;
+                        head = (head + 1) % buffer.length;
+                        size--;
+                    }
+                    case BLOCK -> {
+                        // a subscriber that never requests more would otherwise block the bus's thread for good
+                        val deadline = System.nanoTime() + publisher.blockTimeoutNanos;
+                        var remaining = publisher.blockTimeoutNanos;
+                        try {
+                            while (size == buffer.length && !cancelled && remaining > 0) {
+                                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                                remaining = deadline - System.nanoTime();
+                            }
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        if (cancelled || size == buffer.length) return;
+                    }
+                }
+                buffer[(head + size++) % buffer.length] = event;
+            }
+            drain();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested a non-positive number of events: " + n));
+                return;
+            }
+            synchronized (this) {
+                val requested = this.requested + n;
+                this.requested = requested < 0 ? Long.MAX_VALUE : requested;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            synchronized (this) {
+                Arrays.fill(buffer, null);
+                size = 0;
+                notifyAll();
+            }
+            // without an owner, only the next dispatch is known to be on the bus's thread
+            if (publisher.bus.getOwner() != null) unregister();
+        }
+
+        /**
+         * Unregisters the listener, unless it already was.
+         *
+         * <p>
+         *     Must be called on the bus's thread, or with the bus having an owner to hand off to.
+         * </p>
+         */
+        private void unregister() {
+            if (unregistered.compareAndSet(false, true)) publisher.bus.unregister(listener);
+        }
+
+        /**
+         * Delivers buffered events while there's demand.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                while (!cancelled) {
+                    final EVENT event;
+                    synchronized (this) {
+                        if (size == 0 || requested == 0) break;
+                        //noinspection unchecked
+                        event = (EVENT) buffer[head];
+                        buffer[head] = null;
+                        head = (head + 1) % buffer.length;
+                        size--;
+                        if (requested != Long.MAX_VALUE) requested--;
+                        if (publisher.overflowPolicy == OverflowPolicy.BLOCK) notifyAll();
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (final Throwable throwable) {
+                        cancel();
+                        throw throwable;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
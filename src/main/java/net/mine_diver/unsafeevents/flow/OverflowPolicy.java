@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.flow;
+
+/**
+ * What an {@link EventPublisher} subscription does with an event when its buffer is full.
+ *
+ * @author mine_diver
+ */
+public enum OverflowPolicy {
+    /**
+     * Drops the oldest buffered event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Drops the new event.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Blocks the posting thread until the subscriber requests more events.
+     *
+     * <p>
+     *     If the subscriber doesn't make room within the publisher's block timeout,
+     *     the new event is dropped, so a subscriber that only requests from {@code onNext} can't stall the bus.
+     * </p>
+     *
+     * <p>
+     *     Must not be used if the subscriber posts events of the same type from {@code onNext},
+     *     as that would block the thread that delivers them.
+     * </p>
+     */
+    BLOCK
+}
@@ -107,6 +107,53 @@ public @interface EventListener {
      */
     int numPriority() default DEFAULT_PRIORITY;
 
+    /**
+     * Returns whether the listener is safe to run on partition lanes.
+     *
+     * <p>
+     *     A partition-safe listener may be invoked concurrently from multiple threads,
+     *     as long as events with the same partition key are never dispatched concurrently.
+     *     In other words, it only touches state owned by the event's key.
+     *     Only applies to methods.
+     * </p>
+     *
+     * @return whether the listener is partition-safe.
+     * @see net.mine_diver.unsafeevents.queue.PartitionedDispatcher
+     */
+    boolean partitionSafe() default false;
+
+    /**
+     * Returns whether the listener may run concurrently with other listeners of its phase.
+     *
+     * <p>
+     *     Adjacent concurrent listeners of the same phase are dispatched
+     *     as a batch on the bus's fork-join pool, and the dispatch waits for the whole batch
+     *     before moving on, so serial listeners and later phases still see all of its effects.
+     *     Only suitable for independent listeners that don't modify the event.
+     *     Only applies to methods.
+     * </p>
+     *
+     * @return whether the listener is concurrent.
+     * @see net.mine_diver.unsafeevents.EventBus#setConcurrentListenerPool(java.util.concurrent.ForkJoinPool)
+     */
+    boolean concurrent() default false;
+
+    /**
+     * Returns whether the listener is dispatched asynchronously.
+     *
+     * <p>
+     *     Async listeners are handed off to the bus's executor after the rest
+     *     of the listeners are done, so blocking work doesn't stall the posting thread.
+     *     The event is only finished once all async listeners are done.
+     *     Only applies to methods.
+     * </p>
+     *
+     * @return whether the listener is async.
+     * @see net.mine_diver.unsafeevents.EventBus#setAsyncListenerExecutor(java.util.concurrent.Executor)
+     * @see net.mine_diver.unsafeevents.EventBus#setAsyncCompletionHook(java.util.function.BiConsumer)
+     */
+    boolean async() default false;
+
     /**
      * Common functions for extracting meaningful data from this annotation.
      *
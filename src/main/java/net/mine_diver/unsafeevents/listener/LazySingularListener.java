@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.listener;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import net.mine_diver.unsafeevents.Event;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link SingularListener} that creates its backing consumer on first use.
+ *
+ * <p>
+ *     Used for method listeners, so registering one only keeps
+ *     the method's executor factory and the listener's instance,
+ *     and the executor itself is only generated when the event type's
+ *     registry gets compiled for a dispatch.
+ *     Access to the method is checked when the listener is created,
+ *     so only the bytecode generation is deferred.
+ * </p>
+ *
+ * <p>
+ *     Concurrent first uses may create the executor more than once,
+ *     which is harmless, as executors are stateless apart from the listener's instance.
+ * </p>
+ *
+ * @param <EVENT> the event type the backing consumer accepts.
+ * @author mine_diver
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+final class LazySingularListener<EVENT extends Event> implements SingularListener<EVENT> {
+    /**
+     * The event type the backing consumer is listening to.
+     */
+    @NotNull Class<EVENT> eventType;
+
+    /**
+     * The factory of the backing consumer.
+     */
+    @NotNull Function<@Nullable Object, @NotNull Consumer<? extends @NotNull Event>> executorFactory;
+
+    /**
+     * The listener's instance, or null for static methods.
+     */
+    @Nullable Object target;
+
+    /**
+     * Listener's phase.
+     */
+    @NotNull String phase;
+
+    /**
+     * Listener's priority.
+     */
+    int priority;
+
+    /**
+     * Listener's group, or null if it doesn't belong to one.
+     */
+    @Nullable String group;
+
+    /**
+     * Whether the backing consumer is safe to run on partition lanes.
+     */
+    boolean partitionSafe;
+
+    /**
+     * Whether the backing consumer may run concurrently with other listeners of its phase.
+     */
+    boolean concurrent;
+
+    /**
+     * Whether the backing consumer is dispatched asynchronously.
+     */
+    boolean async;
+
+    /**
+     * The backing consumer, or null if it wasn't created yet.
+     */
+    @NonFinal @Nullable Consumer<@NotNull EVENT> listener;
+
+    @Override
+    public @NotNull Class<EVENT> eventType() {
+        return eventType;
+    }
+
+    @Override
+    public @NotNull String phase() {
+        return phase;
+    }
+
+    @Override
+    public int priority() {
+        return priority;
+    }
+
+    @Override
+    public @Nullable String group() {
+        return group;
+    }
+
+    @Override
+    public boolean partitionSafe() {
+        return partitionSafe;
+    }
+
+    @Override
+    public boolean concurrent() {
+        return concurrent;
+    }
+
+    @Override
+    public boolean async() {
+        return async;
+    }
+
+    /**
+     * Returns the backing consumer, creating it if necessary.
+     *
+     * @return the backing consumer itself.
+     */
+    @Override
+    public @NotNull Consumer<@NotNull EVENT> listener() {
+        var listener = this.listener;
+        if (listener == null) {
+            //noinspection unchecked
+            this.listener = listener = (Consumer<@NotNull EVENT>) executorFactory.apply(target);
+        }
+        return listener;
+    }
+}
@@ -25,8 +25,6 @@
 package net.mine_diver.unsafeevents.listener;
 
 import com.google.common.collect.ImmutableList;
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceMap;
-import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import lombok.Builder;
 import lombok.experimental.UtilityClass;
 import lombok.val;
@@ -41,13 +39,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNullElse;
 import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
-import static net.mine_diver.unsafeevents.listener.EventListener.DEFAULT_PRIORITY;
 import static net.mine_diver.unsafeevents.listener.EventListener.Helper.getPhase;
 import static net.mine_diver.unsafeevents.listener.EventListener.Helper.getPriority;
 
@@ -86,7 +83,8 @@ import static net.mine_diver.unsafeevents.listener.EventListener.Helper.getPrior
  *     <p>
  *         Reflection isn't actually used for the listener invocation.
  *         Instead, a direct method accessor is generated via ASM,
- *         providing fast invocation.
+ *         providing fast invocation. The accessor is only generated
+ *         once the listener's event type is first dispatched.
  *     </p>
  * </ul>
  *
@@ -106,10 +104,22 @@ import static net.mine_diver.unsafeevents.listener.EventListener.Helper.getPrior
  *         can be any super type of the specified event type.
  *     </p>
  * </ul>
+ *
+ * <p>
+ *     All builders accept an optional group, which is assigned
+ *     to every {@linkplain SingularListener singular listener} they create.
+ *     Reflection and simple builders also accept partition-safe, concurrent and async flags,
+ *     see {@link EventListener#partitionSafe()}, {@link EventListener#concurrent()}
+ *     and {@link EventListener#async()}.
+ * </p>
  */
 @UtilityClass
 public class Listener {
-    final Reference2ReferenceMap<Class<?>, MethodHandles.Lookup> LOOKUPS = new Reference2ReferenceOpenHashMap<>();
+    /**
+     * Privileged lookups of listener classes. Concurrent, as executors
+     * can be generated on registry compilation threads.
+     */
+    final Map<Class<?>, MethodHandles.Lookup> LOOKUPS = new ConcurrentHashMap<>();
 
     public void registerLookup(MethodHandles.Lookup lookup) {
         LOOKUPS.put(lookup.lookupClass(), lookup);
@@ -122,30 +132,16 @@ public class Listener {
     private @NotNull CompositeListener createStatic(
             final @NotNull Class<?> listener,
             final @Nullable String phase,
-            final int priority
+            final int priority,
+            final @Nullable String group
     ) {
-        final String defaultPhase;
-        final int defaultPriority;
-        if (listener.isAnnotationPresent(EventListener.class)) {
-            val eventListener = listener.getAnnotation(EventListener.class);
-            defaultPhase = getPhase(eventListener, phase);
-            defaultPriority = getPriority(eventListener, priority);
-        } else {
-            defaultPhase = requireNonNullElse(phase, DEFAULT_PHASE);
-            defaultPriority = priority;
-        }
-        val listeners = ImmutableList.<SingularListener<?>>builder();
-        for (val method : listener.getDeclaredMethods()) {
-            if (!method.isAnnotationPresent(EventListener.class) || !Modifier.isStatic(method.getModifiers()))
-                continue;
-            listeners.add(
-                    Listener.reflection()
-                            .method(method)
-                            .phase(defaultPhase)
-                            .priority(defaultPriority)
-                            .build()
-            );
-        }
+        val classData = ListenerClassCache.staticMethods(listener);
+        val defaultPhase = classData.phase(phase);
+        val defaultPriority = classData.priority(priority);
+        val methods = classData.methods();
+        val listeners = ImmutableList.<SingularListener<?>>builderWithExpectedSize(methods.size());
+        for (int i = 0; i < methods.size(); i++)
+            listeners.add(methods.get(i).createListener(null, defaultPhase, defaultPriority, group));
         return new SimpleCompositeListener(listeners.build(), defaultPhase, defaultPriority);
     }
 
@@ -156,46 +152,18 @@ public class Listener {
     private <T> @NotNull CompositeListener createObject(
             final @NotNull T listener,
             @Nullable String phase,
-            int priority
+            int priority,
+            @Nullable String group
     ) {
-        val listeners = ImmutableList.<SingularListener<?>>builder();
-        val classDeque = new ArrayDeque<Class<?>>();
-        val listenerClass = listener.getClass();
-        @Nullable var curClass = listenerClass;
-        while (curClass != null) {
-            classDeque.push(curClass);
-            curClass = curClass.getSuperclass();
-        }
-        @NotNull var defaultPhase = DEFAULT_PHASE;
-        var defaultPriority = DEFAULT_PRIORITY;
-        while (!classDeque.isEmpty()) {
-            curClass = classDeque.pop();
-            @Nullable val compositeListener = curClass.getAnnotation(EventListener.class);
-            if (curClass == listenerClass) {
-                if (compositeListener != null) {
-                    defaultPhase = getPhase(compositeListener, phase);
-                    defaultPriority = getPriority(compositeListener, priority);
-                } else {
-                    defaultPhase = requireNonNullElse(phase, DEFAULT_PHASE);
-                    defaultPriority = priority;
-                }
-            } else if (compositeListener != null) {
-                defaultPhase = compositeListener.phase();
-                defaultPriority = getPriority(compositeListener);
-            }
-            for (val method : curClass.getDeclaredMethods()) {
-                if (!method.isAnnotationPresent(EventListener.class) || Modifier.isStatic(method.getModifiers()))
-                    continue;
-                listeners.add(
-                        Listener.reflection()
-                                .listener(listener)
-                                .method(method)
-                                .phase(defaultPhase)
-                                .priority(defaultPriority)
-                                .build()
-                );
-            }
-        }
+        // the hierarchy scan is cached per class,
+        // only the listeners themselves are created per object
+        val classData = ListenerClassCache.objectMethods(listener.getClass());
+        val defaultPhase = classData.phase(phase);
+        val defaultPriority = classData.priority(priority);
+        val methods = classData.methods();
+        val listeners = ImmutableList.<SingularListener<?>>builderWithExpectedSize(methods.size());
+        for (int i = 0; i < methods.size(); i++)
+            listeners.add(methods.get(i).createListener(listener, defaultPhase, defaultPriority, group));
         return new SimpleCompositeListener(listeners.build(), defaultPhase, defaultPriority);
     }
 
@@ -208,7 +176,62 @@ public class Listener {
             final @Nullable Object listener,
             final @NotNull Method method,
             final @Nullable String phase,
-            final int priority
+            final int priority,
+            final @Nullable String group,
+            final boolean partitionSafe,
+            final boolean concurrent,
+            final boolean async
+    ) {
+        eventType = resolveEventType(method, eventType);
+        final String listenerPhase;
+        final int listenerPriority;
+        final boolean listenerPartitionSafe;
+        final boolean listenerConcurrent;
+        final boolean listenerAsync;
+        if (method.isAnnotationPresent(EventListener.class)) {
+            val eventListener = method.getAnnotation(EventListener.class);
+            listenerPhase = getPhase(eventListener, phase);
+            listenerPriority = getPriority(eventListener, priority);
+            listenerPartitionSafe = partitionSafe || eventListener.partitionSafe();
+            listenerConcurrent = concurrent || eventListener.concurrent();
+            listenerAsync = async || eventListener.async();
+        } else {
+            listenerPhase = requireNonNullElse(phase, DEFAULT_PHASE);
+            listenerPriority = priority;
+            listenerPartitionSafe = partitionSafe;
+            listenerConcurrent = concurrent;
+            listenerAsync = async;
+        }
+        val resolvedEventType = eventType;
+        // access errors are reported now, only the executor generation is deferred
+        ListenerExecutorFactory.resolveLookup(method, resolvedEventType);
+        return new LazySingularListener<>(
+                resolvedEventType,
+                target -> ListenerExecutorFactory.create(target, method, resolvedEventType), // the high performance executor is only created on first use
+                listener,
+                listenerPhase,
+                listenerPriority,
+                group,
+                listenerPartitionSafe,
+                listenerConcurrent,
+                listenerAsync
+        );
+    }
+
+    /**
+     * Validates the method's parameters and resolves the event type it's listening to.
+     *
+     * @param method the listener method.
+     * @param eventType the explicitly specified event type, or null to infer it from the method's parameter.
+     * @return the event type the method is listening to.
+     * @param <EVENT> the event type.
+     * @throws InvalidMethodParameterCountException if the method doesn't have exactly 1 parameter.
+     * @throws InvalidMethodParameterTypeException if the method's parameter is not an event.
+     * @throws IncompatibleEventTypesException if the method's parameter is not assignable from the specified event type.
+     */
+    <EVENT extends Event> @NotNull Class<EVENT> resolveEventType(
+            final @NotNull Method method,
+            final @Nullable Class<EVENT> eventType
     ) {
         if (method.getParameterCount() != 1) throw new InvalidMethodParameterCountException(String.format(
                 "Method %s#%s has a wrong amount of parameters!",
@@ -222,27 +245,12 @@ public class Listener {
                         method.getDeclaringClass().getName(), method.getName(), rawEventType.getName()
                 ));
             //noinspection unchecked
-            eventType = (Class<EVENT>) rawEventType.asSubclass(Event.class); // casting the method parameter type to the event type
+            return (Class<EVENT>) rawEventType.asSubclass(Event.class); // casting the method parameter type to the event type
         } else if (!rawEventType.isAssignableFrom(eventType)) throw new IncompatibleEventTypesException(String.format(
                 "Method %s#%s's parameter type (%s) is not assignable from the passed event type (%s)!",
                 method.getDeclaringClass().getName(), method.getName(), rawEventType.getName(), eventType.getName()
         ));
-        final String listenerPhase;
-        final int listenerPriority;
-        if (method.isAnnotationPresent(EventListener.class)) {
-            val eventListener = method.getAnnotation(EventListener.class);
-            listenerPhase = getPhase(eventListener, phase);
-            listenerPriority = getPriority(eventListener, priority);
-        } else {
-            listenerPhase = requireNonNullElse(phase, DEFAULT_PHASE);
-            listenerPriority = priority;
-        }
-        return new SimpleSingularListener<>(
-                eventType,
-                ListenerExecutorFactory.create(listener, method, eventType), // creating a high performance executor for this method
-                listenerPhase,
-                listenerPriority
-        );
+        return eventType;
     }
 
     @Builder(
@@ -253,7 +261,11 @@ public class Listener {
             @Nullable Class<EVENT> eventType,
             final @NotNull Consumer<@NotNull EVENT> listener,
             final @Nullable String phase,
-            final int priority
+            final int priority,
+            final @Nullable String group,
+            final boolean partitionSafe,
+            final boolean concurrent,
+            final boolean async
     ) {
         // resolving the event type from consumer's parameters
         val rawEventType = TypeResolver.resolveRawArgument(Consumer.class, listener.getClass()).asSubclass(Event.class);
@@ -269,11 +281,15 @@ public class Listener {
                 "Consumer %s's parameter type (%s) is not assignable from the passed event type (%s)!",
                 listener.getClass().getName(), rawEventType.getName(), eventType.getName()
         ));
-        return new SimpleSingularListener<>(
-                eventType,
-                listener,
-                requireNonNullElse(phase, DEFAULT_PHASE),
-                priority
-        );
+        return SimpleSingularListener.<EVENT>builder()
+                .eventType(eventType)
+                .listener(listener)
+                .phase(phase)
+                .priority(priority)
+                .group(group)
+                .partitionSafe(partitionSafe)
+                .concurrent(concurrent)
+                .async(async)
+                .build();
     }
 }
@@ -0,0 +1,348 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.listener;
+
+import com.google.common.collect.ImmutableList;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNullElse;
+import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
+import static net.mine_diver.unsafeevents.listener.EventListener.DEFAULT_PRIORITY;
+import static net.mine_diver.unsafeevents.listener.EventListener.Helper.getPriority;
+
+/**
+ * Per-class cache of {@link EventListener} methods.
+ *
+ * <p>
+ *     Scanning a class hierarchy, reading annotations and validating
+ *     method parameters is done once per class, so registering
+ *     another instance of a known class only costs creating the listeners.
+ * </p>
+ *
+ * <p>
+ *     Classes with a compile-time {@link ListenerIndex} skip the reflection
+ *     scan and runtime executor generation entirely.
+ * </p>
+ *
+ * @see Listener#staticMethods()
+ * @see Listener#object()
+ * @author mine_diver
+ */
+@UtilityClass
+class ListenerClassCache {
+    /**
+     * {@link EventListener} methods declared in a class, without resolved defaults.
+     */
+    private final ClassValue<@NotNull DeclaredMethods> DECLARED = new ClassValue<>() {
+        @Override
+        protected @NotNull DeclaredMethods computeValue(final @NotNull Class<?> type) {
+            val index = findIndex(type);
+            return index == null ? scanDeclared(type) : fromIndex(index);
+        }
+    };
+
+    /**
+     * Static {@link EventListener} methods declared in a class.
+     */
+    private final ClassValue<@NotNull ClassData> STATIC = new ClassValue<>() {
+        @Override
+        protected @NotNull ClassData computeValue(final @NotNull Class<?> type) {
+            return scanStatic(type);
+        }
+    };
+
+    /**
+     * Non-static {@link EventListener} methods in a class's hierarchy.
+     */
+    private final ClassValue<@NotNull ClassData> OBJECT = new ClassValue<>() {
+        @Override
+        protected @NotNull ClassData computeValue(final @NotNull Class<?> type) {
+            return scanObject(type);
+        }
+    };
+
+    /**
+     * Returns the cached static {@link EventListener} methods of the specified class.
+     *
+     * @param listenerClass the class to look up.
+     * @return the static listener methods.
+     */
+    @NotNull ClassData staticMethods(final @NotNull Class<?> listenerClass) {
+        return STATIC.get(listenerClass);
+    }
+
+    /**
+     * Returns the cached non-static {@link EventListener} methods of the specified class's hierarchy.
+     *
+     * @param listenerClass the class to look up.
+     * @return the instance listener methods.
+     */
+    @NotNull ClassData objectMethods(final @NotNull Class<?> listenerClass) {
+        return OBJECT.get(listenerClass);
+    }
+
+    private @Nullable ListenerIndex findIndex(final @NotNull Class<?> listenerClass) {
+        val classLoader = listenerClass.getClassLoader();
+        if (classLoader == null) return null; // bootstrap classes can't have an index
+        final Class<?> indexClass;
+        try {
+            indexClass = Class.forName(listenerClass.getName() + ListenerIndex.COMPANION_SUFFIX, true, classLoader);
+        } catch (final ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            return indexClass.asSubclass(ListenerIndex.class).getConstructor().newInstance();
+        } catch (final ReflectiveOperationException e) {
+            throw new RuntimeException("Unable to initialize " + indexClass, e);
+        }
+    }
+
+    private @NotNull DeclaredMethods fromIndex(final @NotNull ListenerIndex index) {
+        val staticMethods = ImmutableList.<MethodData>builder();
+        val instanceMethods = ImmutableList.<MethodData>builder();
+        for (val entry : index.listeners()) {
+            val id = entry.id();
+            (entry.staticListener() ? staticMethods : instanceMethods).add(new MethodData(
+                    null,
+                    target -> index.createExecutor(id, target),
+                    entry.eventType(), entry.phase(), entry.priority(), entry.defaultPriority(), entry.partitionSafe(), entry.concurrent(), entry.async()
+            ));
+        }
+        return new DeclaredMethods(staticMethods.build(), instanceMethods.build());
+    }
+
+    private @NotNull DeclaredMethods scanDeclared(final @NotNull Class<?> listenerClass) {
+        val staticMethods = ImmutableList.<MethodData>builder();
+        val instanceMethods = ImmutableList.<MethodData>builder();
+        for (val method : listenerClass.getDeclaredMethods()) {
+            if (!method.isAnnotationPresent(EventListener.class)) continue;
+            val eventType = Listener.resolveEventType(method, null);
+            val eventListener = method.getAnnotation(EventListener.class);
+            (Modifier.isStatic(method.getModifiers()) ? staticMethods : instanceMethods).add(new MethodData(
+                    method,
+                    target -> ListenerExecutorFactory.create(target, method, eventType),
+                    eventType, explicitPhase(eventListener), getPriority(eventListener), isDefaultPriority(eventListener), eventListener.partitionSafe(), eventListener.concurrent(), eventListener.async()
+            ));
+        }
+        return new DeclaredMethods(staticMethods.build(), instanceMethods.build());
+    }
+
+    private @NotNull ClassData scanStatic(final @NotNull Class<?> listenerClass) {
+        val methods = DECLARED.get(listenerClass).staticMethods();
+        checkAccess(methods);
+        return ClassData.of(methods, listenerClass.getAnnotation(EventListener.class));
+    }
+
+    private @NotNull ClassData scanObject(final @NotNull Class<?> listenerClass) {
+        val methods = ImmutableList.<MethodData>builder();
+        val classDeque = new ArrayDeque<Class<?>>();
+        @Nullable Class<?> curClass = listenerClass;
+        while (curClass != null) {
+            classDeque.push(curClass);
+            curClass = curClass.getSuperclass();
+        }
+        @NotNull var defaultPhase = DEFAULT_PHASE;
+        var defaultPriority = DEFAULT_PRIORITY;
+        while (!classDeque.isEmpty()) {
+            curClass = classDeque.pop();
+            val declared = DECLARED.get(curClass).instanceMethods();
+            checkAccess(declared);
+            if (curClass == listenerClass) {
+                // only the listener class's defaults depend on the builder
+                methods.addAll(declared);
+                continue;
+            }
+            @Nullable val compositeListener = curClass.getAnnotation(EventListener.class);
+            if (compositeListener != null) {
+                defaultPhase = compositeListener.phase();
+                defaultPriority = getPriority(compositeListener);
+            }
+            // the super classes' defaults are known at this point
+            for (val method : declared) methods.add(method.resolve(defaultPhase, defaultPriority));
+        }
+        return ClassData.of(methods.build(), listenerClass.getAnnotation(EventListener.class));
+    }
+
+    /**
+     * Checks that the executors of the reflected methods can be generated,
+     * so access errors are reported on registration instead of the first dispatch.
+     *
+     * @param methods the methods to check.
+     * @see ListenerExecutorFactory#resolveLookup(java.lang.reflect.Method, Class)
+     */
+    private void checkAccess(final @NotNull ImmutableList<@NotNull MethodData> methods) {
+        for (val method : methods) {
+            @Nullable val reflected = method.method();
+            if (reflected != null) ListenerExecutorFactory.resolveLookup(reflected, method.eventType());
+        }
+    }
+
+    /**
+     * {@link EventListener} methods declared in a class.
+     *
+     * @param staticMethods the static listener methods.
+     * @param instanceMethods the non-static listener methods.
+     */
+    private record DeclaredMethods(
+            @NotNull ImmutableList<@NotNull MethodData> staticMethods,
+            @NotNull ImmutableList<@NotNull MethodData> instanceMethods
+    ) {}
+
+    /**
+     * Cached {@link EventListener} methods of a class.
+     *
+     * @param methods the listener methods, in registration order.
+     * @param phase the class's explicit default phase, or null if it's inherited from the builder.
+     * @param priority the class's default priority.
+     * @param defaultPriority whether {@code priority} is inherited from the builder.
+     */
+    record ClassData(
+            @NotNull ImmutableList<@NotNull MethodData> methods,
+            @Nullable String phase,
+            int priority,
+            boolean defaultPriority
+    ) {
+        private static @NotNull ClassData of(
+                final @NotNull ImmutableList<@NotNull MethodData> methods,
+                final @Nullable EventListener eventListener
+        ) {
+            return eventListener == null ?
+                    new ClassData(methods, null, DEFAULT_PRIORITY, true) :
+                    new ClassData(methods, explicitPhase(eventListener), getPriority(eventListener), isDefaultPriority(eventListener));
+        }
+
+        /**
+         * Resolves the default phase of the sub-listeners.
+         *
+         * @param phase the builder's phase.
+         * @return the default phase of the sub-listeners.
+         */
+        @NotNull String phase(final @Nullable String phase) {
+            return this.phase == null ? requireNonNullElse(phase, DEFAULT_PHASE) : this.phase;
+        }
+
+        /**
+         * Resolves the default priority of the sub-listeners.
+         *
+         * @param priority the builder's priority.
+         * @return the default priority of the sub-listeners.
+         */
+        int priority(final int priority) {
+            return defaultPriority ? priority : this.priority;
+        }
+    }
+
+    /**
+     * A cached {@link EventListener} method.
+     *
+     * @param method the reflected method, or null if it comes from a compile-time index.
+     * @param executorFactory the factory of the method's executor, accepting the listener's instance or null.
+     * @param eventType the validated event type the method is listening to.
+     * @param phase the method's explicit phase, or null if it's inherited from the class.
+     * @param priority the method's priority.
+     * @param defaultPriority whether {@code priority} is inherited from the class.
+     * @param partitionSafe whether the method is safe to run on partition lanes.
+     * @param concurrent whether the method may run concurrently with other listeners of its phase.
+     * @param async whether the method is dispatched asynchronously.
+     */
+    record MethodData(
+            @Nullable Method method,
+            @NotNull Function<@Nullable Object, @NotNull Consumer<? extends @NotNull Event>> executorFactory,
+            @NotNull Class<? extends Event> eventType,
+            @Nullable String phase,
+            int priority,
+            boolean defaultPriority,
+            boolean partitionSafe,
+            boolean concurrent,
+            boolean async
+    ) {
+        /**
+         * Resolves the inherited phase and priority of this method.
+         *
+         * @param defaultPhase the class's default phase.
+         * @param defaultPriority the class's default priority.
+         * @return the resolved method.
+         */
+        private @NotNull MethodData resolve(
+                final @NotNull String defaultPhase,
+                final int defaultPriority
+        ) {
+            return new MethodData(method, executorFactory, eventType, phase == null ? defaultPhase : phase, this.defaultPriority ? defaultPriority : priority, false, partitionSafe, concurrent, async);
+        }
+
+        /**
+         * Creates a singular listener for this method.
+         *
+         * <p>
+         *     The executor is only created once the listener is first used.
+         * </p>
+         *
+         * @param target the listener's instance, or null for static methods.
+         * @param defaultPhase the class's resolved default phase.
+         * @param defaultPriority the class's resolved default priority.
+         * @param group the listener's group, or null.
+         * @return the singular listener.
+         * @param <EVENT> the event type.
+         */
+        <EVENT extends Event> @NotNull SingularListener<@NotNull EVENT> createListener(
+                final @Nullable Object target,
+                final @NotNull String defaultPhase,
+                final int defaultPriority,
+                final @Nullable String group
+        ) {
+            //noinspection unchecked
+            return new LazySingularListener<>(
+                    (Class<EVENT>) eventType,
+                    executorFactory,
+                    target,
+                    phase == null ? defaultPhase : phase,
+                    this.defaultPriority ? defaultPriority : priority,
+                    group,
+                    partitionSafe,
+                    concurrent,
+                    async
+            );
+        }
+    }
+
+    private @Nullable String explicitPhase(final @NotNull EventListener eventListener) {
+        val phase = eventListener.phase();
+        return DEFAULT_PHASE.equals(phase) ? null : phase;
+    }
+
+    private boolean isDefaultPriority(final @NotNull EventListener eventListener) {
+        return eventListener.priority().custom && eventListener.numPriority() == DEFAULT_PRIORITY;
+    }
+}
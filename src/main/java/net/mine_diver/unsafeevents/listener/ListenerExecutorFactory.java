@@ -27,13 +27,15 @@ package net.mine_diver.unsafeevents.listener;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.util.BytecodeCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Type;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.concurrent.ConcurrentHashMap;
@@ -56,18 +58,38 @@ final class ListenerExecutorFactory {
     private final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
     /**
-     * Generates and defines a high performance executor.
+     * The executor factory type. Accepts the listener's instance, or null for static methods.
+     */
+    private final MethodType FACTORY_TYPE = MethodType.methodType(Consumer.class, Object.class);
+
+    /**
+     * The resolved lookup cache. Lets repeated registrations of a method skip the access check.
+     */
+    private final @NotNull ConcurrentMap<@NotNull Method, MethodHandles.@NotNull Lookup> lookups = new ConcurrentHashMap<>();
+
+    /**
+     * Resolves the lookup the method's executor is defined with
+     * and checks that the lookup can access the method.
      *
-     * @param method the method to generate the executor for.
+     * <p>
+     *     Called when the listener is created, so access errors are reported
+     *     on registration, even though the executor itself is only generated
+     *     on the first dispatch.
+     * </p>
+     *
+     * @param method the listener method.
      * @param eventType the event type class that the listener is listening to.
-     * @return the high performance listener executor class.
-     * @param <EVENT> the event type.
+     * @return the lookup to define the method's executor with.
+     * @throws IllegalStateException if the method is non-public and its class
+     *                               didn't register a privileged lookup,
+     *                               or if the lookup can't access the method.
      */
-    private <EVENT extends Event> @NotNull Class<? extends Consumer<@NotNull EVENT>> generateExecutor(
+    MethodHandles.@NotNull Lookup resolveLookup(
             final @NotNull Method method,
-            final @NotNull Class<EVENT> eventType
+            final @NotNull Class<? extends Event> eventType
     ) {
-        final @NotNull MethodHandles.Lookup lookup;
+        @Nullable var lookup = lookups.get(method);
+        if (lookup != null) return lookup;
         val declaringClass = method.getDeclaringClass();
         if (Modifier.isPublic(method.getModifiers()))
             // we can use our own lookup
@@ -97,22 +119,80 @@ final class ListenerExecutorFactory {
                 )
         );
         try {
-            //noinspection unchecked
-            return (Class<? extends Consumer<@NotNull EVENT>>) lookup
-                    .defineHiddenClass(
-                            generateExecutorClass(
-                                    method,
-                                    lookup.lookupClass().getName().replace('.', '/')
-                                            + "$$UnsafeEvents$ListenerExecutor",
-                                    eventType
+            lookup.unreflect(method);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException("""
+                    Method "%s" of class "%s" was attempted to be registered \
+                    as a listener of the event "%s", but it isn't accessible \
+                    from the lookup of class "%s"!\
+                    """
+                    .formatted(
+                            method.getName(),
+                            declaringClass.getName(),
+                            eventType.getName(),
+                            lookup.lookupClass().getName()
+                    ),
+                    e
+            );
+        }
+        lookups.putIfAbsent(method, lookup);
+        return lookup;
+    }
+
+    /**
+     * Generates and defines a high performance executor.
+     *
+     * <p>
+     *     Returns a factory handle of {@link #FACTORY_TYPE} type
+     *     instead of the class itself, so instantiating an executor
+     *     doesn't involve reflective constructor lookup.
+     *     Static executors are stateless, so the factory of a static executor
+     *     always returns the same instance.
+     * </p>
+     *
+     * @param method the method to generate the executor for.
+     * @param eventType the event type class that the listener is listening to.
+     * @return the high performance listener executor factory.
+     * @param <EVENT> the event type.
+     */
+    private <EVENT extends Event> @NotNull MethodHandle generateExecutor(
+            final @NotNull Method method,
+            final @NotNull Class<EVENT> eventType
+    ) {
+        val lookup = resolveLookup(method, eventType);
+        val declaringClass = method.getDeclaringClass();
+        try {
+            val executorName = lookup.lookupClass().getName().replace('.', '/') + "$$UnsafeEvents$ListenerExecutor";
+            val executorLookup = lookup.defineHiddenClass(
+                    BytecodeCache.get(
+                            // the executor only depends on the method's signature and the event type
+                            String.join(
+                                    "|",
+                                    "executor", executorName,
+                                    Type.getInternalName(declaringClass), String.valueOf(declaringClass.isInterface()),
+                                    method.getName(), Type.getMethodDescriptor(method), String.valueOf(Modifier.isStatic(method.getModifiers())),
+                                    Type.getInternalName(eventType)
                             ),
-                            true,
-                            MethodHandles.Lookup.ClassOption.NESTMATE
-                    )
-                    .lookupClass()
-                    .asSubclass(Consumer.class);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
+                            () -> generateExecutorClass(method, executorName, eventType),
+                            ListenerExecutorFactory.class, declaringClass
+                    ),
+                    true,
+                    MethodHandles.Lookup.ClassOption.NESTMATE
+            );
+            val executorClass = executorLookup.lookupClass();
+            if (Modifier.isStatic(method.getModifiers()))
+                return MethodHandles.dropArguments(
+                        MethodHandles.constant(
+                                Consumer.class,
+                                executorLookup.findConstructor(executorClass, MethodType.methodType(void.class)).invoke()
+                        ),
+                        0, Object.class
+                );
+            return executorLookup
+                    .findConstructor(executorClass, MethodType.methodType(void.class, Object.class))
+                    .asType(FACTORY_TYPE);
+        } catch (final Throwable e) {
+            throw new RuntimeException("Unable to initialize the executor of " + method, e);
         }
     }
 
@@ -168,9 +248,9 @@ final class ListenerExecutorFactory {
     }
 
     /**
-     * The executor cache. Helps to avoid creating too many unnecessary objects.
+     * The executor factory cache. Helps to avoid creating too many unnecessary objects.
      */
-    private final @NotNull ConcurrentMap<@NotNull Method, @NotNull Class<? extends Consumer<? extends @NotNull Event>>> cache = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentMap<@NotNull Method, @NotNull MethodHandle> cache = new ConcurrentHashMap<>();
 
     /**
      * Creates a high performance listener executor.
@@ -186,12 +266,13 @@ final class ListenerExecutorFactory {
             final @NotNull Method method,
             final @NotNull Class<EVENT> eventType
     ) {
-        //noinspection unchecked
-        final @NotNull Class<? extends Consumer<@NotNull EVENT>> executorClass = (Class<? extends Consumer<@NotNull EVENT>>) cache.computeIfAbsent(method, method1 -> generateExecutor(method1, eventType));
+        var factory = cache.get(method);
+        if (factory == null) factory = cache.computeIfAbsent(method, method1 -> generateExecutor(method1, eventType));
         try {
-            return Modifier.isStatic(method.getModifiers()) ? executorClass.getConstructor().newInstance() : executorClass.getConstructor(Object.class).newInstance(target);
-        } catch (final InstantiationException | IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
-            throw new RuntimeException("Unable to initialize " + executorClass, e);
+            //noinspection unchecked
+            return (Consumer<@NotNull EVENT>) (Consumer<?>) factory.invokeExact(target);
+        } catch (final Throwable e) {
+            throw new RuntimeException("Unable to initialize the executor of " + method, e);
         }
     }
 }
\ No newline at end of file
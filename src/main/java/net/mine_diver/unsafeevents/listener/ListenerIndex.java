@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.listener;
+
+import net.mine_diver.unsafeevents.Event;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compile-time index of a class's {@link EventListener} methods.
+ *
+ * <p>
+ *     Implementations are generated by {@code net.mine_diver.unsafeevents.processor.ListenerIndexProcessor}
+ *     as companion classes named after the listener class with the
+ *     {@link #COMPANION_SUFFIX} suffix, and contain plain Java executors
+ *     for each indexed method.
+ * </p>
+ *
+ * <p>
+ *     The processor isn't part of the runtime library. It's published
+ *     as the {@code processor} classifier and has to be added to
+ *     the {@code annotationProcessor} configuration explicitly.
+ * </p>
+ *
+ * <p>
+ *     When present, {@link Listener#staticMethods()} and {@link Listener#object()}
+ *     use the index instead of scanning the class with reflection
+ *     and generating executors at runtime.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@ApiStatus.Internal
+public interface ListenerIndex {
+    /**
+     * The suffix appended to the listener class's binary name
+     * to get the binary name of its index.
+     */
+    String COMPANION_SUFFIX = "$$UnsafeEvents$ListenerIndex";
+
+    /**
+     * @return the {@link EventListener} methods declared in the indexed class.
+     */
+    @NotNull List<@NotNull Entry> listeners();
+
+    /**
+     * Creates an executor of an indexed method.
+     *
+     * @param id the {@link Entry#id()} of the method.
+     * @param target the listener's instance, or null for static methods.
+     * @return the executor of the method.
+     */
+    @NotNull Consumer<? extends @NotNull Event> createExecutor(final int id, final @Nullable Object target);
+
+    /**
+     * An indexed {@link EventListener} method.
+     *
+     * @param id the ID of the method's executor in this index.
+     * @param staticListener whether the method is static.
+     * @param eventType the event type the method is listening to.
+     * @param phase the method's explicit phase, or null if it's inherited from the class.
+     * @param priority the method's priority.
+     * @param defaultPriority whether {@code priority} is inherited from the class.
+     * @param partitionSafe whether the method is safe to run on partition lanes.
+     * @param concurrent whether the method may run concurrently with other listeners of its phase.
+     * @param async whether the method is dispatched asynchronously.
+     */
+    record Entry(
+            int id,
+            boolean staticListener,
+            @NotNull Class<? extends Event> eventType,
+            @Nullable String phase,
+            int priority,
+            boolean defaultPriority,
+            boolean partitionSafe,
+            boolean concurrent,
+            boolean async
+    ) {}
+}
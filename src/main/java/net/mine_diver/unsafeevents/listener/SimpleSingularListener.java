@@ -24,25 +24,88 @@
 
 package net.mine_diver.unsafeevents.listener;
 
+import lombok.Builder;
 import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.event.EventPhases;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Consumer;
 
+import static java.util.Objects.requireNonNullElse;
+import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
+
 /**
  * A simple record implementation of {@link SingularListener}.
  *
+ * <p>
+ *     Listeners are created through {@link #builder()},
+ *     which only requires the event type and the backing consumer,
+ *     or through the constructor taking the event type, the backing consumer, the phase and the priority.
+ * </p>
+ *
  * @param eventType the event type the backing consumer is listening to.
  * @param listener the backing consumer itself.
  * @param phase listener's phase. Can be any string. Ordering of phases
  *              is defined individually for each event type.
  * @param priority listener's priority. Can be any integer number.
  *                 High priority - early execution. 0 is default.
+ * @param group listener's group, or null if it doesn't belong to one.
+ * @param partitionSafe whether the backing consumer is safe to run on partition lanes.
+ * @param concurrent whether the backing consumer may run concurrently with other listeners of its phase.
+ * @param async whether the backing consumer is dispatched asynchronously.
  * @param <EVENT> the event type the backing consumer accepts.
  */
 public record SimpleSingularListener<EVENT extends Event>(
         @NotNull Class<EVENT> eventType,
         @NotNull Consumer<@NotNull EVENT> listener,
         @NotNull String phase,
-        int priority
-) implements SingularListener<EVENT> {}
+        int priority,
+        @Nullable String group,
+        boolean partitionSafe,
+        boolean concurrent,
+        boolean async
+) implements SingularListener<EVENT> {
+    /**
+     * Creates a listener without a group, which isn't partition-safe, concurrent or async.
+     *
+     * @param eventType the event type the backing consumer is listening to.
+     * @param listener the backing consumer itself.
+     * @param phase listener's phase.
+     * @param priority listener's priority.
+     */
+    public SimpleSingularListener(
+            final @NotNull Class<EVENT> eventType,
+            final @NotNull Consumer<@NotNull EVENT> listener,
+            final @NotNull String phase,
+            final int priority
+    ) {
+        this(eventType, listener, phase, priority, null, false, false, false);
+    }
+
+    /**
+     * Creates a listener, defaulting the phase to {@link EventPhases#DEFAULT_PHASE}.
+     */
+    @Builder
+    private static <EVENT extends Event> @NotNull SimpleSingularListener<EVENT> create(
+            final @NotNull Class<EVENT> eventType,
+            final @NotNull Consumer<@NotNull EVENT> listener,
+            final @Nullable String phase,
+            final int priority,
+            final @Nullable String group,
+            final boolean partitionSafe,
+            final boolean concurrent,
+            final boolean async
+    ) {
+        return new SimpleSingularListener<>(
+                eventType,
+                listener,
+                requireNonNullElse(phase, DEFAULT_PHASE),
+                priority,
+                group,
+                partitionSafe,
+                concurrent,
+                async
+        );
+    }
+}
@@ -26,6 +26,7 @@ package net.mine_diver.unsafeevents.listener;
 
 import net.mine_diver.unsafeevents.Event;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Consumer;
 
@@ -45,6 +46,50 @@ public interface SingularListener<EVENT extends Event> extends GenericListener {
      */
     @NotNull Consumer<@NotNull EVENT> listener();
 
+    /**
+     * Returns the group of this listener.
+     *
+     * <p>
+     *     Groups can be toggled at runtime without unregistering the listeners,
+     *     see {@link net.mine_diver.unsafeevents.EventBus#setGroupEnabled(String, boolean)}.
+     * </p>
+     *
+     * @return the group of this listener, or null if it doesn't belong to one.
+     */
+    default @Nullable String group() {
+        return null;
+    }
+
+    /**
+     * Returns whether this listener is safe to run on partition lanes.
+     *
+     * @return whether this listener only touches state owned by the event's partition key.
+     * @see EventListener#partitionSafe()
+     */
+    default boolean partitionSafe() {
+        return false;
+    }
+
+    /**
+     * Returns whether this listener may run concurrently with other listeners of its phase.
+     *
+     * @return whether this listener is concurrent.
+     * @see EventListener#concurrent()
+     */
+    default boolean concurrent() {
+        return false;
+    }
+
+    /**
+     * Returns whether this listener is dispatched asynchronously.
+     *
+     * @return whether this listener is async.
+     * @see EventListener#async()
+     */
+    default boolean async() {
+        return false;
+    }
+
     /**
      * Accepts this listener to a consumer.
      *
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventDispatcher;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A queue that dispatches events within a time budget.
+ *
+ * <p>
+ *     Events can be posted from any thread. They're dispatched on the thread
+ *     calling {@link #drain(Duration)}, which stops once the budget runs out
+ *     and leaves the remaining events for the next drain.
+ *     Useful for non-critical events in a tick-based loop,
+ *     such as analytics or cosmetic updates.
+ * </p>
+ *
+ * <p>
+ *     Event types can be given a priority with {@link #setPriority(Class, int)}.
+ *     Higher priority events are drained first, events of the same priority
+ *     are drained in posting order.
+ * </p>
+ *
+ * <p>
+ *     Draining doesn't allocate. Only a single thread may drain at a time.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@RequiredArgsConstructor
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class BudgetedEventQueue {
+    private static final @NotNull Comparator<@NotNull Lane> LANE_ORDER = Comparator.comparingInt((Lane lane) -> lane.priority).reversed();
+
+    /**
+     * The dispatcher drained events are posted to.
+     */
+    @NotNull EventDispatcher dispatcher;
+
+    /**
+     * The lane of events without a priority.
+     */
+    @NotNull Lane defaultLane = new Lane(0);
+
+    /**
+     * All lanes, highest priority first.
+     */
+    @NonFinal volatile @NotNull Lane @NotNull [] lanes = new Lane[] { defaultLane };
+
+    /**
+     * Lanes of event types with a priority.
+     */
+    @NotNull Map<@NotNull Class<? extends Event>, @NotNull Lane> typeLanes = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the priority of the specified event type.
+     *
+     * <p>
+     *     Already queued events of the type keep their previous priority.
+     * </p>
+     *
+     * @param eventType the event type.
+     * @param priority the priority. Higher priority events are drained first, 0 is default.
+     */
+    public synchronized void setPriority(final @NotNull Class<? extends Event> eventType, final int priority) {
+        if (priority == 0) {
+            typeLanes.remove(eventType);
+            return;
+        }
+        for (val lane : lanes)
+            if (lane.priority == priority) {
+                typeLanes.put(eventType, lane);
+                return;
+            }
+        val lane = new Lane(priority);
+        val newLanes = Arrays.copyOf(lanes, lanes.length + 1);
+        newLanes[lanes.length] = lane;
+        Arrays.sort(newLanes, LANE_ORDER);
+        lanes = newLanes;
+        typeLanes.put(eventType, lane);
+    }
+
+    /**
+     * Queues an event. Can be called from any thread.
+     *
+     * @param event the event to queue.
+     */
+    public void post(final @NotNull Event event) {
+        typeLanes.getOrDefault(event.getClass(), defaultLane).events.offer(event);
+    }
+
+    /**
+     * Returns whether there are no queued events.
+     *
+     * @return whether there are no queued events.
+     */
+    public boolean isEmpty() {
+        for (val lane : lanes)
+            if (!lane.events.isEmpty()) return false;
+        return true;
+    }
+
+    /**
+     * Dispatches queued events until there are none left or the budget runs out.
+     *
+     * <p>
+     *     The budget is checked before each event, so a single slow listener
+     *     can overrun it by the duration of its dispatch.
+     * </p>
+     *
+     * @param budget the time available for dispatching.
+     * @return the number of dispatched events.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    public int drain(final @NotNull Duration budget) {
+        val deadline = System.nanoTime() + budget.toNanos();
+        val lanes = this.lanes;
+        int dispatched = 0;
+        for (val lane : lanes) {
+            val events = lane.events;
+            while (System.nanoTime() - deadline < 0) {
+                val event = events.poll();
+                if (event == null) break;
+                dispatcher.post(event);
+                dispatched++;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Events of a single priority.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    @FieldDefaults(
+            level = AccessLevel.PRIVATE,
+            makeFinal = true
+    )
+    private static final class Lane {
+        int priority;
+        @NotNull Queue<@NotNull Event> events = new ConcurrentLinkedQueue<>();
+    }
+}
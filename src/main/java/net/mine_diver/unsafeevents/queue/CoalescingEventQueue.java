@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import it.unimi.dsi.fastutil.objects.*;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventDispatcher;
+import net.mine_diver.unsafeevents.event.Coalescable;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A queue that collects events and dispatches them on {@link #flush()},
+ * coalescing pending events of the same type and key.
+ *
+ * <p>
+ *     Posting a {@link Coalescable} event replaces the pending event
+ *     of the same type with an equal {@linkplain Coalescable#getCoalescingKey() key},
+ *     keeping the position of the first one. Other events are always queued.
+ *     Replaced events are dropped without being dispatched,
+ *     but are still {@linkplain Event#finish() finished}, so events reused through
+ *     an {@link net.mine_diver.unsafeevents.EventMaker} are released.
+ * </p>
+ *
+ * <p>
+ *     Useful for high-frequency events, such as "block changed" or "entity moved",
+ *     whose listeners only care about the latest state.
+ * </p>
+ *
+ * <p>
+ *     Not thread-safe. Events posted during a flush are dispatched by the next flush.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@RequiredArgsConstructor
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class CoalescingEventQueue {
+    /**
+     * A dispatcher without listeners, which only finishes the events posted to it.
+     */
+    private static final @NotNull EventDispatcher NO_LISTENERS = new EventDispatcher() {};
+
+    /**
+     * The dispatcher flushed events are posted to.
+     */
+    @NotNull EventDispatcher dispatcher;
+
+    /**
+     * Pending events, in posting order.
+     */
+    @NonFinal @NotNull ObjectArrayList<@NotNull Event> pending = new ObjectArrayList<>();
+
+    /**
+     * The buffer {@link #pending} is swapped with during a flush.
+     */
+    @NonFinal @NotNull ObjectArrayList<@NotNull Event> flushing = new ObjectArrayList<>();
+
+    /**
+     * Indices of pending coalescable events in {@link #pending}, by event type and key.
+     */
+    @NotNull Reference2ReferenceMap<@NotNull Class<? extends Event>, @NotNull Object2IntMap<@NotNull Object>> indices = new Reference2ReferenceOpenHashMap<>();
+
+    /**
+     * Whether a flush is in progress, making nested flushes no-op.
+     */
+    @NonFinal boolean flushInProgress;
+
+    /**
+     * Queues an event, replacing a pending event of the same type and key if it's {@link Coalescable}.
+     *
+     * @param event the event to queue.
+     */
+    public void post(final @NotNull Event event) {
+        if (event instanceof Coalescable coalescable) {
+            val typeIndices = indices.computeIfAbsent(event.getClass(), type -> {
+                val map = new Object2IntOpenHashMap<>();
+                map.defaultReturnValue(-1);
+                return map;
+            });
+            val key = coalescable.getCoalescingKey();
+            val index = typeIndices.getInt(key);
+            if (index > -1) {
+                val replaced = pending.set(index, event);
+                if (!Event.isFinishNoop(replaced.getClass())) NO_LISTENERS.post(replaced);
+                return;
+            }
+            typeIndices.put(key, pending.size());
+        }
+        pending.add(event);
+    }
+
+    /**
+     * Returns the number of events that would be dispatched by {@link #flush()}.
+     *
+     * @return the number of pending events.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Dispatches all pending events in posting order.
+     *
+     * <p>
+     *     If a listener throws, the remaining events of this flush are dropped.
+     *     Calling this method from a listener during a flush does nothing.
+     * </p>
+     *
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    public void flush() {
+        if (flushInProgress || pending.isEmpty()) return;
+        val events = pending;
+        pending = flushing;
+        flushing = events;
+        for (val typeIndices : indices.values()) typeIndices.clear();
+        flushInProgress = true;
+        try {
+            for (int i = 0, size = events.size(); i < size; i++)
+                dispatcher.post(events.get(i));
+        } finally {
+            events.clear();
+            flushInProgress = false;
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A ring buffer pipeline that hands events off to consumer threads,
+ * which dispatch them in batches.
+ *
+ * <p>
+ *     Events are stored in a preallocated power-of-two ring.
+ *     Producers from any thread claim slots with a CAS on the claim sequence
+ *     and publish them with a per-slot availability flag, so producers
+ *     never run listeners inline. Consumers claim contiguous ranges of
+ *     published slots and dispatch them.
+ * </p>
+ *
+ * <p>
+ *     Consumers don't dispatch through the bus itself, as its state is confined to its own thread.
+ *     Instead, each routed event type gets a standalone registry compiled by
+ *     {@link EventBus#compileDetachedRegistry(Class)}, which consumers only read.
+ *     Registries are captured by {@link #route(Class)} and {@link #refresh()},
+ *     listener changes made in between aren't seen by the consumers.
+ *     Both methods must be called on the bus's thread.
+ * </p>
+ *
+ * <p>
+ *     With a single consumer, events are dispatched in publishing order.
+ *     With more consumers, batches are dispatched concurrently,
+ *     so the listeners of routed event types must be thread-safe.
+ * </p>
+ *
+ * <p>
+ *     When the ring is full, {@link #tryPublish(Event)} fails
+ *     and {@link #publish(Event)} waits using the wait strategy.
+ *     Both are counted in {@link #getBackpressureCount()}.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class EventPipeline implements AutoCloseable {
+    private static final @NotNull VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final @Nullable Consumer<?> @NotNull [] NO_REGISTRIES = new Consumer[0];
+
+    /**
+     * The claim sequence of a closed pipeline.
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    @NotNull EventBus bus;
+    @NotNull WaitStrategy waitStrategy;
+    @NotNull Consumer<@NotNull Throwable> exceptionHandler;
+    int batchSize;
+
+    /**
+     * The event slots.
+     */
+    @Nullable Event @NotNull [] entries;
+
+    /**
+     * Per-slot round of the last published sequence, making a slot available to consumers.
+     */
+    int @NotNull [] available;
+
+    int mask;
+    int indexShift;
+
+    /**
+     * Registries of routed event types by event ID. Copied on write, so consumers can read it without locking.
+     */
+    @NonFinal volatile @Nullable Consumer<?> @NotNull [] registries = NO_REGISTRIES;
+
+    /**
+     * Routed event types by event ID.
+     */
+    @NonFinal volatile @Nullable Class<? extends Event> @NotNull [] routedTypes = new Class[0];
+
+    /**
+     * The last claimed producer sequence, or {@link #CLOSED} once the pipeline is closed.
+     */
+    @NotNull AtomicLong claimSequence = new AtomicLong(-1);
+
+    /**
+     * The last sequence claimed by a consumer.
+     */
+    @NotNull AtomicLong workSequence = new AtomicLong(-1);
+
+    /**
+     * Per-consumer sequences, at or below which the consumer has no events in flight.
+     */
+    @NotNull AtomicLong @NotNull [] consumerSequences;
+
+    @NotNull Thread @NotNull [] consumers;
+
+    /**
+     * Producers' cache of the minimum consumer sequence.
+     */
+    @NotNull AtomicLong gatingSequenceCache = new AtomicLong(-1);
+
+    @NotNull LongAdder backpressure = new LongAdder();
+
+    /**
+     * The last sequence claimed before the pipeline was closed.
+     */
+    @NonFinal volatile long finalSequence;
+
+    @NonFinal volatile boolean closed;
+
+    /**
+     * Creates and starts a pipeline.
+     *
+     * @param bus the bus to compile the registries of routed event types from.
+     * @param bufferSize the number of slots, rounded up to a power of two. 1024 by default.
+     * @param consumers the number of consumer threads. 1 by default.
+     * @param batchSize the maximum number of events a consumer claims at once. 64 by default.
+     * @param waitStrategy the strategy of waiting for events or free slots. {@link WaitStrategy#YIELD} by default.
+     * @param threadFactory the factory of consumer threads. Daemon threads by default.
+     * @param exceptionHandler the handler of exceptions thrown during dispatch. Prints the stack trace by default.
+     */
+    @Builder
+    private EventPipeline(
+            final @NotNull EventBus bus,
+            final int bufferSize,
+            final int consumers,
+            final int batchSize,
+            final @Nullable WaitStrategy waitStrategy,
+            final @Nullable ThreadFactory threadFactory,
+            final @Nullable Consumer<@NotNull Throwable> exceptionHandler
+    ) {
+        this.bus = bus;
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.YIELD : waitStrategy;
+        this.exceptionHandler = exceptionHandler == null ? Throwable::printStackTrace : exceptionHandler;
+        this.batchSize = batchSize < 1 ? 64 : batchSize;
+        val size = bufferSize < 2 ? 1024 : Integer.highestOneBit(bufferSize - 1) << 1;
+        entries = new Event[size];
+        available = new int[size];
+        Arrays.fill(available, -1);
+        mask = size - 1;
+        indexShift = Integer.numberOfTrailingZeros(size);
+        val consumerCount = Math.max(consumers, 1);
+        consumerSequences = new AtomicLong[consumerCount];
+        this.consumers = new Thread[consumerCount];
+        val factory = threadFactory == null ? (ThreadFactory) runnable -> {
+            val thread = new Thread(runnable, "UnsafeEvents pipeline consumer");
+            thread.setDaemon(true);
+            return thread;
+        } : threadFactory;
+        for (int i = 0; i < consumerCount; i++) {
+            val sequence = consumerSequences[i] = new AtomicLong(-1);
+            this.consumers[i] = factory.newThread(() -> consume(sequence));
+        }
+        for (val consumer : this.consumers) consumer.start();
+    }
+
+    /**
+     * Routes the specified event type through this pipeline,
+     * compiling its registry from the bus's current listeners.
+     *
+     * <p>
+     *     Must be called on the bus's thread.
+     * </p>
+     *
+     * @param eventType the event type to route.
+     * @param <EVENT> the event type.
+     */
+    public <EVENT extends Event> void route(final @NotNull Class<EVENT> eventType) {
+        val eventId = Event.getEventID(eventType);
+        val registries = Arrays.copyOf(this.registries, Math.max(this.registries.length, eventId + 1));
+        registries[eventId] = bus.compileDetachedRegistry(eventType);
+        val routedTypes = Arrays.copyOf(this.routedTypes, registries.length);
+        routedTypes[eventId] = eventType;
+        // publishing the registry before the event type can pass the check in publish
+        this.registries = registries;
+        this.routedTypes = routedTypes;
+    }
+
+    /**
+     * Recompiles the registries of all routed event types from the bus's current listeners.
+     *
+     * <p>
+     *     Must be called on the bus's thread. Events that are already published
+     *     may be dispatched to either the old or the new registries.
+     * </p>
+     */
+    public void refresh() {
+        val routedTypes = this.routedTypes;
+        val registries = this.registries.clone();
+        for (int i = 0; i < routedTypes.length; i++) {
+            val eventType = routedTypes[i];
+            if (eventType != null) registries[i] = bus.compileDetachedRegistry(eventType);
+        }
+        this.registries = registries;
+    }
+
+    /**
+     * Publishes an event, waiting for a free slot if the ring is full.
+     *
+     * @param event the event to publish.
+     * @throws IllegalArgumentException if the event's type isn't routed.
+     * @throws IllegalStateException if the pipeline is closed.
+     */
+    public void publish(final @NotNull Event event) {
+        checkRouted(event);
+        int attempt = 0;
+        long sequence;
+        while ((sequence = claim()) < 0) {
+            if (attempt == 0) backpressure.increment();
+            attempt = waitStrategy.idle(attempt);
+        }
+        publish(sequence, event);
+    }
+
+    /**
+     * Publishes an event if there's a free slot.
+     *
+     * @param event the event to publish.
+     * @return whether the event was published, false if the ring is full.
+     * @throws IllegalArgumentException if the event's type isn't routed.
+     * @throws IllegalStateException if the pipeline is closed.
+     */
+    public boolean tryPublish(final @NotNull Event event) {
+        checkRouted(event);
+        val sequence = claim();
+        if (sequence < 0) {
+            backpressure.increment();
+            return false;
+        }
+        publish(sequence, event);
+        return true;
+    }
+
+    /**
+     * Returns how many times producers found the ring full.
+     *
+     * @return the number of times producers were pushed back.
+     */
+    public long getBackpressureCount() {
+        return backpressure.sum();
+    }
+
+    /**
+     * Returns the number of free slots.
+     *
+     * @return the remaining capacity of the ring.
+     */
+    public int remainingCapacity() {
+        val claimed = claimSequence.get();
+        return claimed == CLOSED ? 0 : (int) (entries.length - (claimed - minimumConsumerSequence()));
+    }
+
+    /**
+     * Waits until all published events are dispatched, then stops the consumer threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the consumers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        // closing the claim sequence itself, so a producer can't claim a slot after the consumers stopped
+        val claimed = claimSequence.getAndSet(CLOSED);
+        if (claimed != CLOSED) {
+            finalSequence = claimed;
+            closed = true;
+        }
+        for (val consumer : consumers) consumer.join();
+    }
+
+    private void checkRouted(final @NotNull Event event) {
+        val eventId = Event.getEventID(event.getClass());
+        val routedTypes = this.routedTypes;
+        if (eventId >= routedTypes.length || routedTypes[eventId] == null) throw new IllegalArgumentException(String.format(
+                "Event type %s isn't routed!",
+                event.getClass().getName()
+        ));
+    }
+
+    /**
+     * Claims the next sequence.
+     *
+     * @return the claimed sequence, or -1 if the ring is full.
+     */
+    private long claim() {
+        while (true) {
+            val current = claimSequence.get();
+            if (current == CLOSED) throw new IllegalStateException("The pipeline is closed!");
+            val next = current + 1;
+            val wrapPoint = next - entries.length;
+            if (wrapPoint > gatingSequenceCache.get()) {
+                val gatingSequence = minimumConsumerSequence();
+                gatingSequenceCache.set(gatingSequence);
+                if (wrapPoint > gatingSequence) return -1;
+            }
+            if (claimSequence.compareAndSet(current, next)) return next;
+        }
+    }
+
+    private void publish(final long sequence, final @NotNull Event event) {
+        val index = (int) sequence & mask;
+        entries[index] = event;
+        AVAILABLE.setRelease(available, index, (int) (sequence >>> indexShift));
+    }
+
+    private boolean isAvailable(final long sequence) {
+        return (int) AVAILABLE.getAcquire(available, (int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (val sequence : consumerSequences) minimum = Math.min(minimum, sequence.get());
+        return minimum;
+    }
+
+    /**
+     * The consumer loop.
+     *
+     * @param sequence the consumer's sequence.
+     */
+    private void consume(final @NotNull AtomicLong sequence) {
+        int attempt = 0;
+        while (true) {
+            val current = workSequence.get();
+            // nothing of this consumer is in flight at or below the last claimed sequence
+            sequence.set(current);
+            val next = current + 1;
+            if (!isAvailable(next)) {
+                if (closed && finalSequence == current) return;
+                attempt = waitStrategy.idle(attempt);
+                continue;
+            }
+            attempt = 0;
+            // extending the batch over contiguously published slots
+            var end = next;
+            while (end - next + 1 < batchSize && isAvailable(end + 1)) end++;
+            if (!workSequence.compareAndSet(current, end)) continue;
+            for (long i = next; i <= end; i++) {
+                val index = (int) i & mask;
+                val event = entries[index];
+                entries[index] = null;
+                try {
+                    //noinspection ConstantConditions
+                    dispatch(event);
+                } catch (final Throwable throwable) {
+                    handle(throwable);
+                }
+            }
+        }
+    }
+
+    private <EVENT extends Event> void dispatch(final @NotNull EVENT event) {
+        //noinspection unchecked
+        val registry = (Consumer<EVENT>) registries[Event.getEventID(event.getClass())];
+        //noinspection ConstantConditions
+        registry.accept(event);
+    }
+
+    /**
+     * Passes a dispatch failure to the exception handler,
+     * making sure a failing handler doesn't stop the consumer.
+     *
+     * @param throwable the dispatch failure.
+     */
+    private void handle(final @NotNull Throwable throwable) {
+        try {
+            exceptionHandler.accept(throwable);
+        } catch (final Throwable handlerFailure) {
+            handlerFailure.addSuppressed(throwable);
+            val thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, handlerFailure);
+        }
+    }
+}
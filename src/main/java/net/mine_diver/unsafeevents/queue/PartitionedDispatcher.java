@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.EventListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A dispatcher that spreads events over worker lanes by a per-event-type key,
+ * preserving the order of events with the same key.
+ *
+ * <p>
+ *     Each partitioned event type has a key function, for example, returning the entity
+ *     or the chunk the event is about. Events are hashed by their key onto one of the lanes,
+ *     each being a lock-free queue drained by its own thread, so events with the same key
+ *     are dispatched one at a time in submission order (per producer thread),
+ *     while events with different keys are dispatched in parallel.
+ * </p>
+ *
+ * <p>
+ *     Lanes don't dispatch through the bus itself, as its state is confined to its own thread.
+ *     Instead, each partitioned event type gets a standalone registry compiled by
+ *     {@link EventBus#compilePartitionRegistry(Class)}, which lanes only read.
+ *     All listeners of a partitioned event type must be
+ *     {@linkplain EventListener#partitionSafe() partition-safe}.
+ *     Registries are captured by {@link #partition(Class, Function)} and {@link #refresh()},
+ *     listener changes made in between aren't seen by the lanes.
+ *     Both methods must be called on the bus's thread.
+ * </p>
+ *
+ * <p>
+ *     {@link #barrier()} waits until all events submitted before it are dispatched,
+ *     for example, at the end of a tick.
+ *     Submitted events must not be reused until then.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class PartitionedDispatcher implements AutoCloseable {
+    private static final @Nullable Partition<?> @NotNull [] NO_PARTITIONS = new Partition[0];
+
+    @NotNull EventBus bus;
+    @NotNull WaitStrategy waitStrategy;
+    @NotNull Consumer<@NotNull Throwable> exceptionHandler;
+    @NotNull Lane @NotNull [] lanes;
+
+    /**
+     * Partitions by event ID. Copied on write, so lanes can read it without locking.
+     */
+    @NonFinal volatile @Nullable Partition<?> @NotNull [] partitions = NO_PARTITIONS;
+
+    @NonFinal volatile boolean closed;
+
+    /**
+     * Creates and starts a partitioned dispatcher.
+     *
+     * @param bus the bus to compile the registries of partitioned event types from.
+     * @param lanes the number of lanes. The number of available processors by default.
+     * @param waitStrategy the strategy of waiting for events or for the barrier. {@link WaitStrategy#PARK} by default.
+     * @param threadFactory the factory of lane threads. Daemon threads by default.
+     * @param exceptionHandler the handler of exceptions thrown during dispatch. Prints the stack trace by default.
+     */
+    @Builder
+    private PartitionedDispatcher(
+            final @NotNull EventBus bus,
+            final int lanes,
+            final @Nullable WaitStrategy waitStrategy,
+            final @Nullable ThreadFactory threadFactory,
+            final @Nullable Consumer<@NotNull Throwable> exceptionHandler
+    ) {
+        this.bus = bus;
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.PARK : waitStrategy;
+        this.exceptionHandler = exceptionHandler == null ? Throwable::printStackTrace : exceptionHandler;
+        val laneCount = lanes < 1 ? Runtime.getRuntime().availableProcessors() : lanes;
+        this.lanes = new Lane[laneCount];
+        val factory = threadFactory == null ? (ThreadFactory) runnable -> {
+            val thread = new Thread(runnable, "UnsafeEvents partition lane");
+            thread.setDaemon(true);
+            return thread;
+        } : threadFactory;
+        for (int i = 0; i < laneCount; i++) {
+            val lane = this.lanes[i] = new Lane();
+            lane.thread = factory.newThread(() -> drain(lane));
+        }
+        for (val lane : this.lanes) lane.thread.start();
+    }
+
+    /**
+     * Partitions the specified event type by the specified key function,
+     * replacing its previous key function if there was one.
+     *
+     * <p>
+     *     Must be called on the bus's thread.
+     * </p>
+     *
+     * @param eventType the event type to partition.
+     * @param keyFunction the function returning the key of an event, the order of whose events is preserved.
+     * @param <EVENT> the event type.
+     * @throws IllegalStateException if any of the event type's listeners isn't partition-safe.
+     */
+    public <EVENT extends Event> void partition(
+            final @NotNull Class<EVENT> eventType,
+            final @NotNull Function<? super @NotNull EVENT, ?> keyFunction
+    ) {
+        val eventId = Event.getEventID(eventType);
+        val partitions = this.partitions;
+        val updated = Arrays.copyOf(partitions, Math.max(partitions.length, eventId + 1));
+        updated[eventId] = new Partition<>(eventType, keyFunction, bus.compilePartitionRegistry(eventType));
+        this.partitions = updated;
+    }
+
+    /**
+     * Recompiles the registries of all partitioned event types from the bus's current listeners.
+     *
+     * <p>
+     *     Must be called on the bus's thread. Events that are already submitted
+     *     may be dispatched to either the old or the new registries,
+     *     call {@link #barrier()} first if that matters.
+     * </p>
+     *
+     * @throws IllegalStateException if any of the listeners isn't partition-safe.
+     */
+    public void refresh() {
+        val updated = partitions.clone();
+        for (int i = 0; i < updated.length; i++) {
+            val partition = updated[i];
+            if (partition != null) updated[i] = partition.recompile(bus);
+        }
+        partitions = updated;
+    }
+
+    /**
+     * Submits an event to its key's lane.
+     *
+     * <p>
+     *     Can be called from any thread.
+     * </p>
+     *
+     * @param event the event to dispatch.
+     * @throws IllegalArgumentException if the event's type isn't partitioned.
+     * @throws IllegalStateException if the dispatcher is closed.
+     */
+    public void submit(final @NotNull Event event) {
+        val eventId = Event.getEventID(event.getClass());
+        val partitions = this.partitions;
+        @Nullable val partition = eventId < partitions.length ? partitions[eventId] : null;
+        if (partition == null) throw new IllegalArgumentException(String.format(
+                "Event type %s isn't partitioned!",
+                event.getClass().getName()
+        ));
+        val hash = Objects.hashCode(partition.key(event));
+        val lane = lanes[((hash ^ hash >>> 16) & Integer.MAX_VALUE) % lanes.length];
+        lane.submitted.incrementAndGet();
+        if (closed) {
+            lane.submitted.decrementAndGet();
+            throw new IllegalStateException("The dispatcher is closed!");
+        }
+        lane.queue.offer(event);
+    }
+
+    /**
+     * Waits until all events submitted before this call are dispatched.
+     *
+     * @throws IllegalStateException if called from a lane.
+     */
+    public void barrier() {
+        val targets = new long[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].thread == Thread.currentThread())
+                throw new IllegalStateException("Can't wait for the barrier from a lane!");
+            targets[i] = lanes[i].submitted.get();
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            val completed = lanes[i].completed;
+            int attempt = 0;
+            while (completed.get() < targets[i]) attempt = waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Returns the number of lanes.
+     *
+     * @return the number of lanes.
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Waits until all submitted events are dispatched, then stops the lane threads.
+     *
+     * @throws InterruptedException if interrupted while waiting for the lanes.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        for (val lane : lanes) lane.thread.join();
+    }
+
+    /**
+     * The lane loop.
+     *
+     * @param lane the lane to drain.
+     */
+    private void drain(final @NotNull Lane lane) {
+        val queue = lane.queue;
+        long completed = 0;
+        int attempt = 0;
+        while (true) {
+            val event = queue.poll();
+            if (event == null) {
+                // a submit that raced with close either offers its event, or sees the dispatcher closed
+                if (closed && lane.submitted.get() == completed) return;
+                attempt = waitStrategy.idle(attempt);
+                continue;
+            }
+            attempt = 0;
+            try {
+                //noinspection ConstantConditions
+                partitions[Event.getEventID(event.getClass())].dispatch(event);
+            } catch (final Throwable throwable) {
+                handle(throwable);
+            }
+            lane.completed.setRelease(++completed);
+        }
+    }
+
+    /**
+     * Passes a dispatch failure to the exception handler,
+     * making sure a failing handler doesn't stop the lane.
+     *
+     * @param throwable the dispatch failure.
+     */
+    private void handle(final @NotNull Throwable throwable) {
+        try {
+            exceptionHandler.accept(throwable);
+        } catch (final Throwable handlerFailure) {
+            handlerFailure.addSuppressed(throwable);
+            val thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, handlerFailure);
+        }
+    }
+
+    /**
+     * A partitioned event type.
+     *
+     * @param eventType the event type.
+     * @param keyFunction the key function of the event type.
+     * @param registry the registry of the event type.
+     * @param <EVENT> the event type.
+     */
+    private record Partition<EVENT extends Event>(
+            @NotNull Class<EVENT> eventType,
+            @NotNull Function<? super @NotNull EVENT, ?> keyFunction,
+            @NotNull Consumer<@NotNull EVENT> registry
+    ) {
+        private @Nullable Object key(final @NotNull Event event) {
+            return keyFunction.apply(eventType.cast(event));
+        }
+
+        private void dispatch(final @NotNull Event event) {
+            registry.accept(eventType.cast(event));
+        }
+
+        private @NotNull Partition<EVENT> recompile(final @NotNull EventBus bus) {
+            return new Partition<>(eventType, keyFunction, bus.compilePartitionRegistry(eventType));
+        }
+    }
+
+    /**
+     * A worker lane.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Lane {
+        final @NotNull Queue<@NotNull Event> queue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * The number of events submitted to this lane.
+         */
+        final @NotNull AtomicLong submitted = new AtomicLong();
+
+        /**
+         * The number of events this lane has dispatched.
+         */
+        final @NotNull AtomicLong completed = new AtomicLong();
+
+        @NotNull Thread thread;
+    }
+}
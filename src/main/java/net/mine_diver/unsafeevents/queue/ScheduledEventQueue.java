@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.val;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventDispatcher;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Schedules events to be dispatched at a later tick, backed by a hashed timing wheel.
+ *
+ * <p>
+ *     Scheduling and cancelling are O(1) and only allocate the returned handle.
+ *     Time is advanced either explicitly through {@link #advance(long)},
+ *     or by the wall clock through {@link #update()} if a tick duration was specified.
+ *     Due events are dispatched in batches during the advance, in tick order,
+ *     and in scheduling order within a tick.
+ * </p>
+ *
+ * <p>
+ *     Not thread-safe, usually driven by a game loop.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@FieldDefaults(
+        level = AccessLevel.PRIVATE,
+        makeFinal = true
+)
+public class ScheduledEventQueue {
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * The dispatcher due events are posted to.
+     */
+    @NotNull EventDispatcher dispatcher;
+
+    /**
+     * The wheel's buckets, each being the head of a doubly linked list.
+     */
+    @Nullable ScheduledEvent @NotNull [] wheel;
+
+    int mask;
+
+    /**
+     * The duration of a tick in nanoseconds, or 0 if time is only advanced explicitly.
+     */
+    long tickNanos;
+
+    /**
+     * The wall clock time of tick 0.
+     */
+    long startNanos;
+
+    /**
+     * The last processed tick.
+     */
+    @NonFinal long currentTick;
+
+    /**
+     * Creates a queue driven by {@link #advance(long)}.
+     *
+     * @param dispatcher the dispatcher due events are posted to.
+     */
+    public ScheduledEventQueue(final @NotNull EventDispatcher dispatcher) {
+        this(dispatcher, DEFAULT_WHEEL_SIZE, Duration.ZERO);
+    }
+
+    /**
+     * Creates a queue that can be driven by the wall clock through {@link #update()}.
+     *
+     * @param dispatcher the dispatcher due events are posted to.
+     * @param tickDuration the duration of a single tick.
+     */
+    public ScheduledEventQueue(final @NotNull EventDispatcher dispatcher, final @NotNull Duration tickDuration) {
+        this(dispatcher, DEFAULT_WHEEL_SIZE, tickDuration);
+    }
+
+    /**
+     * Creates a queue.
+     *
+     * @param dispatcher the dispatcher due events are posted to.
+     * @param wheelSize the number of buckets in the wheel, rounded up to a power of two.
+     *                  Delays shorter than this are scheduled without extra rounds.
+     * @param tickDuration the duration of a single tick, or zero if time is only advanced explicitly.
+     */
+    public ScheduledEventQueue(final @NotNull EventDispatcher dispatcher, final int wheelSize, final @NotNull Duration tickDuration) {
+        if (wheelSize < 1) throw new IllegalArgumentException("Wheel size must be positive!");
+        this.dispatcher = dispatcher;
+        val size = Integer.highestOneBit(wheelSize - 1) << 1;
+        wheel = new ScheduledEvent[Math.max(size, 1)];
+        mask = wheel.length - 1;
+        tickNanos = tickDuration.toNanos();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the last processed tick.
+     *
+     * @return the current tick.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Schedules an event to be dispatched after the specified number of ticks.
+     *
+     * @param event the event to dispatch.
+     * @param delay the delay in ticks. Delays below 1 are dispatched on the next tick.
+     * @return the handle that can cancel the dispatch.
+     */
+    public @NotNull ScheduledEvent postLater(final @NotNull Event event, final long delay) {
+        return postAt(event, currentTick + delay);
+    }
+
+    /**
+     * Schedules an event to be dispatched after the specified delay.
+     *
+     * @param event the event to dispatch.
+     * @param delay the delay, rounded up to whole ticks.
+     * @return the handle that can cancel the dispatch.
+     * @throws IllegalStateException if this queue has no tick duration.
+     */
+    public @NotNull ScheduledEvent postLater(final @NotNull Event event, final @NotNull Duration delay) {
+        if (tickNanos == 0) throw new IllegalStateException("The queue has no tick duration!");
+        return postLater(event, (delay.toNanos() + tickNanos - 1) / tickNanos);
+    }
+
+    /**
+     * Schedules an event to be dispatched at the specified tick.
+     *
+     * @param event the event to dispatch.
+     * @param tick the tick. Ticks that already passed are dispatched on the next tick.
+     * @return the handle that can cancel the dispatch.
+     */
+    public @NotNull ScheduledEvent postAt(final @NotNull Event event, final long tick) {
+        val scheduled = new ScheduledEvent(this, event, Math.max(tick, currentTick + 1));
+        link((int) (scheduled.tick & mask), scheduled);
+        return scheduled;
+    }
+
+    /**
+     * Advances time by the specified number of ticks, dispatching due events.
+     *
+     * <p>
+     *     If a listener throws, the remaining events due at that tick are dropped.
+     * </p>
+     *
+     * @param ticks the number of ticks to advance by.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    public void advance(final long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            val tick = ++currentTick;
+            val bucket = (int) (tick & mask);
+            var scheduled = wheel[bucket];
+            if (scheduled == null) continue;
+            // detaching the bucket and collecting due events first,
+            // so listeners can schedule and cancel freely during dispatch
+            wheel[bucket] = null;
+            scheduled.prev.next = null;
+            ScheduledEvent due = null;
+            ScheduledEvent dueTail = null;
+            while (scheduled != null) {
+                val next = scheduled.next;
+                if (scheduled.tick <= tick) {
+                    scheduled.state = ScheduledEvent.DUE;
+                    scheduled.prev = null;
+                    if (dueTail == null) due = scheduled;
+                    else dueTail.next = scheduled;
+                    dueTail = scheduled;
+                } else link(bucket, scheduled); // due in a later round
+                scheduled = next;
+            }
+            if (dueTail == null) continue;
+            dueTail.next = null;
+            while (due != null) {
+                val next = due.next;
+                due.next = null;
+                if (due.state == ScheduledEvent.DUE) {
+                    due.state = ScheduledEvent.DISPATCHED;
+                    dispatcher.post(due.event);
+                }
+                due = next;
+            }
+        }
+    }
+
+    /**
+     * Advances time to the current wall clock tick, dispatching due events.
+     *
+     * @throws IllegalStateException if this queue has no tick duration.
+     * @throws DispatchException if a listener throws during dispatch.
+     */
+    public void update() {
+        if (tickNanos == 0) throw new IllegalStateException("The queue has no tick duration!");
+        advance((System.nanoTime() - startNanos) / tickNanos - currentTick);
+    }
+
+    private void link(final int bucket, final @NotNull ScheduledEvent scheduled) {
+        val head = wheel[bucket];
+        if (head == null) {
+            scheduled.prev = scheduled.next = scheduled;
+            wheel[bucket] = scheduled;
+        } else {
+            // appending to the tail to keep the scheduling order
+            val tail = head.prev;
+            scheduled.prev = tail;
+            scheduled.next = head;
+            tail.next = scheduled;
+            head.prev = scheduled;
+        }
+    }
+
+    private void unlink(final int bucket, final @NotNull ScheduledEvent scheduled) {
+        if (scheduled.next == scheduled) wheel[bucket] = null;
+        else {
+            scheduled.prev.next = scheduled.next;
+            scheduled.next.prev = scheduled.prev;
+            if (wheel[bucket] == scheduled) wheel[bucket] = scheduled.next;
+        }
+        scheduled.prev = scheduled.next = null;
+    }
+
+    /**
+     * A handle of a scheduled event.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static final class ScheduledEvent {
+        private static final int PENDING = 0, DUE = 1, DISPATCHED = 2, CANCELLED = 3;
+
+        final @NotNull ScheduledEventQueue queue;
+        final @NotNull Event event;
+        final long tick;
+        int state;
+        ScheduledEvent prev, next;
+
+        private ScheduledEvent(final @NotNull ScheduledEventQueue queue, final @NotNull Event event, final long tick) {
+            this.queue = queue;
+            this.event = event;
+            this.tick = tick;
+        }
+
+        /**
+         * @return the scheduled event.
+         */
+        public @NotNull Event getEvent() {
+            return event;
+        }
+
+        /**
+         * @return the tick the event is dispatched at.
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * @return whether the event was cancelled.
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Cancels the dispatch.
+         *
+         * @return whether the dispatch was cancelled, false if it was already dispatched or cancelled.
+         */
+        public boolean cancel() {
+            switch (state) {
+                case PENDING -> queue.unlink((int) (tick & queue.mask), this);
+                case DUE -> {} // already unlinked, but not yet dispatched
+                default -> {
+                    return false;
+                }
+            }
+            state = CANCELLED;
+            return true;
+        }
+    }
+}
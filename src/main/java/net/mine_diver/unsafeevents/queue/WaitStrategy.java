@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.queue;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Strategies of waiting for events to become available, or for space to become free.
+ *
+ * @see EventPipeline
+ * @author mine_diver
+ */
+public enum WaitStrategy {
+    /**
+     * Spins in place. Lowest latency, but keeps a core busy.
+     */
+    BUSY_SPIN {
+        @Override
+        int idle(final int attempt) {
+            Thread.onSpinWait();
+            return attempt + 1;
+        }
+    },
+
+    /**
+     * Spins for a while, then yields the thread.
+     */
+    YIELD {
+        @Override
+        int idle(final int attempt) {
+            if (attempt < SPIN_TRIES) Thread.onSpinWait();
+            else Thread.yield();
+            return attempt + 1;
+        }
+    },
+
+    /**
+     * Spins for a while, then parks the thread for short intervals.
+     * Lowest CPU usage, but highest latency.
+     */
+    PARK {
+        @Override
+        int idle(final int attempt) {
+            if (attempt < SPIN_TRIES) Thread.onSpinWait();
+            else LockSupport.parkNanos(PARK_NANOS);
+            return attempt + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    /**
+     * Waits once.
+     *
+     * @param attempt the number of times the caller already waited for the same condition.
+     * @return the attempt number to pass on the next wait.
+     */
+    abstract int idle(final int attempt);
+}
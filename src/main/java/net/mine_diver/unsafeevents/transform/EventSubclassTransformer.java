@@ -27,7 +27,7 @@ package net.mine_diver.unsafeevents.transform;
 import lombok.experimental.UtilityClass;
 import lombok.val;
 import net.mine_diver.unsafeevents.Event;
-import net.mine_diver.unsafeevents.util.Util;
+import net.mine_diver.unsafeevents.event.Cancelable;
 import org.jetbrains.annotations.NotNull;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
@@ -56,18 +56,23 @@ public class EventSubclassTransformer {
     private final String METHOD_GETEVENTID_NAME = "getEventID";
     private final String METHOD_GETEVENTID_DESC = Type.getMethodDescriptor(Type.INT_TYPE);
 
+    /**
+     * Name of the injected flag recording whether {@link Event#finish()} is a no-op for the event type.
+     *
+     * @see Event#isFinishNoop(Class)
+     */
+    public final String FIELD_FINISHNOOP_NAME = "0$UNSAFEEVENTS$FINISH_NOOP";
+    private final int FIELD_FINISHNOOP_ACCESS = Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL | ACC_SYNTHETIC;
+    private final String FIELD_FINISHNOOP_DESC = Type.BOOLEAN_TYPE.getDescriptor();
+
+    private final String METHOD_FINISH_NAME = "finish";
+    private final String METHOD_FINISH_DESC = Type.getMethodDescriptor(Type.VOID_TYPE);
+
     private final String CLASS_CANCELABLE_DESC = "Lnet/mine_diver/unsafeevents/event/Cancelable;";
 
     private final int METHOD_ISCANCELABLE_ACCESS = Modifier.PUBLIC;
     private final String METHOD_ISCANCELABLE_NAME = "isCancelable";
     private final String METHOD_ISCANCELABLE_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE);
-    private final MethodNode METHOD_ISCANCELABLE = Util.make(
-            new MethodNode(METHOD_ISCANCELABLE_ACCESS, METHOD_ISCANCELABLE_NAME, METHOD_ISCANCELABLE_DESC, null, null),
-            methodNode -> {
-                methodNode.instructions.add(new InsnNode(ICONST_1));
-                methodNode.instructions.add(new InsnNode(IRETURN));
-            }
-    );
 
     public boolean handles(final @NotNull String name) {
         return !name.equals("net.mine_diver.unsafeevents.Event");
@@ -102,13 +107,30 @@ public class EventSubclassTransformer {
                                     Modifier.isPublic(methodNode.access) &&
                                             METHOD_ISCANCELABLE_NAME.equals(methodNode.name) &&
                                             METHOD_ISCANCELABLE_DESC.equals(methodNode.desc)
-                            ) &&
-                            eventNode.visibleAnnotations != null &&
-                            eventNode.visibleAnnotations
-                                    .stream()
-                                    .anyMatch(node -> CLASS_CANCELABLE_DESC.equals(node.desc))
+                            )
             ) {
-                addIsCancelable(eventNode);
+                val annotated = eventNode.visibleAnnotations != null &&
+                        eventNode.visibleAnnotations
+                                .stream()
+                                .anyMatch(node -> CLASS_CANCELABLE_DESC.equals(node.desc));
+                final Class<?> isCancelableOwner;
+                try {
+                    isCancelableOwner = superClass.getMethod(METHOD_ISCANCELABLE_NAME).getDeclaringClass();
+                } catch (final NoSuchMethodException e) {
+                    throw new RuntimeException(e);
+                }
+                if (isCancelableOwner == Event.class) {
+                    // nobody in the hierarchy overrides isCancelable,
+                    // so the annotation is the only source of truth
+                    addIsCancelable(eventNode, annotated || superClass.isAnnotationPresent(Cancelable.class));
+                    transformed = true;
+                } else if (annotated) {
+                    addIsCancelable(eventNode, true);
+                    transformed = true;
+                }
+            }
+            if (hasNoField(eventNode, FIELD_FINISHNOOP_NAME)) {
+                addFinishNoopField(eventNode, superClass);
                 transformed = true;
             }
             return transformed;
@@ -116,13 +138,14 @@ public class EventSubclassTransformer {
         return false;
     }
 
-    private void addEventIdField(final ClassNode eventNode) {
-        val field = new FieldNode(FIELD_EVENTID_ACCESS, FIELD_EVENTID_NAME, FIELD_EVENTID_DESC, null, null);
-        eventNode.fields.add(field);
-        val fieldInit = new InsnList();
-        fieldInit.add(new MethodInsnNode(INVOKESTATIC, eventNode.name, METHOD_NEXTID_NAME, METHOD_NEXTID_DESC));
-        fieldInit.add(new FieldInsnNode(PUTSTATIC, eventNode.name, FIELD_EVENTID_NAME, FIELD_EVENTID_DESC));
-        eventNode.methods
+    private boolean hasNoField(final ClassNode eventNode, final String name) {
+        return eventNode.fields
+                .stream()
+                .noneMatch(fieldNode -> name.equals(fieldNode.name));
+    }
+
+    private MethodNode getOrCreateClinit(final ClassNode eventNode) {
+        return eventNode.methods
                 .stream()
                 .filter(methodNode ->
                         METHOD_CLINIT_ACCESS == methodNode.access &&
@@ -135,8 +158,16 @@ public class EventSubclassTransformer {
                     clinit.instructions.add(new InsnNode(RETURN));
                     eventNode.methods.add(clinit);
                     return clinit;
-                })
-                .instructions.insert(fieldInit);
+                });
+    }
+
+    private void addEventIdField(final ClassNode eventNode) {
+        val field = new FieldNode(FIELD_EVENTID_ACCESS, FIELD_EVENTID_NAME, FIELD_EVENTID_DESC, null, null);
+        eventNode.fields.add(field);
+        val fieldInit = new InsnList();
+        fieldInit.add(new MethodInsnNode(INVOKESTATIC, eventNode.name, METHOD_NEXTID_NAME, METHOD_NEXTID_DESC));
+        fieldInit.add(new FieldInsnNode(PUTSTATIC, eventNode.name, FIELD_EVENTID_NAME, FIELD_EVENTID_DESC));
+        getOrCreateClinit(eventNode).instructions.insert(fieldInit);
     }
 
     private void addGetEventIdMethod(final ClassNode eventNode) {
@@ -146,7 +177,26 @@ public class EventSubclassTransformer {
         method.accept(eventNode);
     }
 
-    private void addIsCancelable(final ClassNode eventNode) {
-        METHOD_ISCANCELABLE.accept(eventNode);
+    private void addIsCancelable(final ClassNode eventNode, final boolean cancelable) {
+        val method = new MethodNode(METHOD_ISCANCELABLE_ACCESS, METHOD_ISCANCELABLE_NAME, METHOD_ISCANCELABLE_DESC, null, null);
+        method.instructions.add(new InsnNode(cancelable ? ICONST_1 : ICONST_0));
+        method.instructions.add(new InsnNode(IRETURN));
+        method.accept(eventNode);
+    }
+
+    private void addFinishNoopField(final ClassNode eventNode, final Class<?> superClass) {
+        var finishNoop = eventNode.methods
+                .stream()
+                .noneMatch(methodNode ->
+                        METHOD_FINISH_NAME.equals(methodNode.name) &&
+                                METHOD_FINISH_DESC.equals(methodNode.desc)
+                );
+        // the super classes are already loaded, so we can look up their overrides directly
+        for (Class<?> curClass = superClass; finishNoop && curClass != Event.class; curClass = curClass.getSuperclass())
+            try {
+                curClass.getDeclaredMethod(METHOD_FINISH_NAME);
+                finishNoop = false;
+            } catch (final NoSuchMethodException ignored) {}
+        eventNode.fields.add(new FieldNode(FIELD_FINISHNOOP_ACCESS, FIELD_FINISHNOOP_NAME, FIELD_FINISHNOOP_DESC, null, finishNoop ? 1 : 0));
     }
 }
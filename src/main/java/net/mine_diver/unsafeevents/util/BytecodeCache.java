@@ -0,0 +1,303 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.mine_diver.unsafeevents.util;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Optional persistent cache of generated class bytecode.
+ *
+ * <p>
+ *     Generating executors and registries with ASM, and especially computing
+ *     their stack map frames, is slow, while the generated bytecode is
+ *     the same on every start. If a cache directory is set, either
+ *     through the {@code unsafeevents.bytecodeCache} system property
+ *     or {@link #setDirectory(Path)}, generated bytecode is stored
+ *     in the directory and read back on the following starts.
+ * </p>
+ *
+ * <p>
+ *     Entries are keyed by a hash of a description of everything the generated bytecode
+ *     depends on, including the class files of the generator and of the classes
+ *     the bytecode refers to, so stale entries are never read.
+ *     Any I/O failure falls back to generating the bytecode.
+ * </p>
+ *
+ * <p>
+ *     Cached bytecode is defined as hidden nestmates of library and listener classes,
+ *     so the cache directory is trusted as much as the class path.
+ *     The directory must be owned by the current user and, on file systems
+ *     with POSIX permissions, mustn't be writable by other users,
+ *     otherwise the cache is disabled. Every entry is signed with an HMAC
+ *     keyed by a random secret stored in the directory and only readable by its owner,
+ *     so entries that weren't written by this user are regenerated instead of defined.
+ *     On file systems without POSIX permissions, only the ownership is checked,
+ *     and the directory's ACLs are left to the user.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@UtilityClass
+public class BytecodeCache {
+    /**
+     * The system property holding the default cache directory.
+     */
+    public final String DIRECTORY_PROPERTY = "unsafeevents.bytecodeCache";
+
+    /**
+     * Version of the cache entry layout, mixed into all keys.
+     * Must be bumped whenever the layout changes.
+     */
+    private final int FORMAT_VERSION = 2;
+
+    private final int CLASS_MAGIC = 0xCAFEBABE;
+
+    private final String MAC_ALGORITHM = "HmacSHA256";
+    private final int MAC_LENGTH = 32;
+    private final String SECRET_FILE_NAME = "secret";
+
+    private final Set<PosixFilePermission> FOREIGN_WRITE = EnumSet.of(PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE);
+    private final Set<PosixFilePermission> FOREIGN_ACCESS = EnumSet.of(PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE);
+
+    /**
+     * Hashes of class files, or empty strings for classes without one.
+     */
+    private final ClassValue<@NotNull String> CLASS_FILE_HASHES = new ClassValue<>() {
+        @Override
+        protected @NotNull String computeValue(final @NotNull Class<?> type) {
+            if (type.isHidden()) return "";
+            try (@Nullable InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+                return in == null ? "" : HexFormat.of().formatHex(sha256().digest(in.readAllBytes()));
+            } catch (final IOException e) {
+                return "";
+            }
+        }
+    };
+
+    /**
+     * The cache directory, or null if the cache is disabled.
+     */
+    private volatile @Nullable Path directory = getDefaultDirectory();
+
+    /**
+     * The opened cache directory, or null if it wasn't opened yet.
+     */
+    private volatile @Nullable Store store;
+
+    private @Nullable Path getDefaultDirectory() {
+        val property = System.getProperty(DIRECTORY_PROPERTY);
+        return property == null || property.isBlank() ? null : Path.of(property);
+    }
+
+    /**
+     * Sets the cache directory.
+     *
+     * @param directory the directory to store the generated bytecode in, or null to disable the cache.
+     */
+    public void setDirectory(final @Nullable Path directory) {
+        BytecodeCache.directory = directory;
+    }
+
+    /**
+     * Returns the cached bytecode for the specified key, generating and storing it if absent.
+     *
+     * <p>
+     *     The class files of the specified classes are hashed into the key.
+     *     If any of them isn't available, for example, because the class is hidden
+     *     or was defined from memory, the bytecode is generated without caching.
+     * </p>
+     *
+     * @param key the description of everything the generated bytecode depends on.
+     * @param generator the bytecode generator.
+     * @param classes the generator's class and the classes the generated bytecode refers to.
+     * @return the cached or generated bytecode.
+     */
+    public byte @NotNull [] get(
+            final @NotNull String key,
+            final @NotNull Supplier<byte @NotNull []> generator,
+            final @NotNull Class<?> @NotNull ... classes
+    ) {
+        val directory = BytecodeCache.directory;
+        if (directory == null) return generator.get();
+        var store = BytecodeCache.store;
+        if (store == null || !store.directory.equals(directory)) BytecodeCache.store = store = open(directory);
+        if (store.secret == null) return generator.get();
+        val fullKey = new StringBuilder().append(FORMAT_VERSION).append('\n').append(key);
+        for (val type : classes) {
+            val classHash = CLASS_FILE_HASHES.get(type);
+            if (classHash.isEmpty()) return generator.get();
+            fullKey.append('\n').append(type.getName()).append('=').append(classHash);
+        }
+        val name = HexFormat.of().formatHex(sha256().digest(fullKey.toString().getBytes(StandardCharsets.UTF_8)));
+        val file = directory.resolve(name + ".class");
+        val cached = read(store.secret, name, file);
+        if (cached != null) return cached;
+        val bytecode = generator.get();
+        write(store.secret, name, directory, file, bytecode);
+        return bytecode;
+    }
+
+    /**
+     * Checks that the directory can be trusted and loads its secret, creating both if necessary.
+     */
+    private @NotNull Store open(final @NotNull Path directory) {
+        try {
+            val posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+            Files.createDirectories(directory, posix ? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")) } : new FileAttribute<?>[0]);
+            val secretFile = directory.resolve(SECRET_FILE_NAME);
+            if (!Files.exists(secretFile)) createSecret(directory, secretFile, posix);
+            // a file we've just created tells who the current user is
+            val probe = Files.createTempFile(directory, "owner", ".tmp");
+            final boolean trusted;
+            try {
+                val user = Files.getOwner(probe);
+                trusted = user.equals(Files.getOwner(directory)) &&
+                        user.equals(Files.getOwner(secretFile)) &&
+                        (
+                                !posix ||
+                                        !containsAny(Files.getFileAttributeView(directory, PosixFileAttributeView.class).readAttributes().permissions(), FOREIGN_WRITE) &&
+                                        !containsAny(Files.getFileAttributeView(secretFile, PosixFileAttributeView.class).readAttributes().permissions(), FOREIGN_ACCESS)
+                        );
+            } finally {
+                Files.deleteIfExists(probe);
+            }
+            if (!trusted) return new Store(directory, null);
+            val secret = Files.readAllBytes(secretFile);
+            return new Store(directory, secret.length < MAC_LENGTH ? null : new SecretKeySpec(secret, MAC_ALGORITHM));
+        } catch (final IOException | UnsupportedOperationException | SecurityException e) {
+            return new Store(directory, null);
+        }
+    }
+
+    private void createSecret(final @NotNull Path directory, final @NotNull Path secretFile, final boolean posix) throws IOException {
+        val secret = new byte[MAC_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        val tempFile = posix ?
+                Files.createTempFile(directory, SECRET_FILE_NAME, ".tmp", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))) :
+                Files.createTempFile(directory, SECRET_FILE_NAME, ".tmp");
+        try {
+            Files.write(tempFile, secret);
+            Files.move(tempFile, secretFile);
+        } catch (final FileAlreadyExistsException ignored) {
+            // another process was faster, using its secret
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private boolean containsAny(final @NotNull Set<@NotNull PosixFilePermission> permissions, final @NotNull Set<@NotNull PosixFilePermission> forbidden) {
+        for (val permission : forbidden) if (permissions.contains(permission)) return true;
+        return false;
+    }
+
+    private byte @Nullable [] read(final @NotNull SecretKeySpec secret, final @NotNull String name, final @NotNull Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            val entry = Files.readAllBytes(file);
+            if (entry.length < MAC_LENGTH + Integer.BYTES) return null;
+            val bytecode = Arrays.copyOfRange(entry, MAC_LENGTH, entry.length);
+            // forged, corrupted or moved entry, regenerating
+            if (!MessageDigest.isEqual(Arrays.copyOf(entry, MAC_LENGTH), mac(secret, name, bytecode))) return null;
+            if (ByteBuffer.wrap(bytecode).getInt() != CLASS_MAGIC) return null;
+            return bytecode;
+        } catch (final IOException | GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    private void write(final @NotNull SecretKeySpec secret, final @NotNull String name, final @NotNull Path directory, final @NotNull Path file, final byte @NotNull [] bytecode) {
+        try {
+            // writing to a temporary file first, so concurrent starts never read a partial entry
+            val tempFile = Files.createTempFile(directory, name, ".tmp");
+            try {
+                val entry = Arrays.copyOf(mac(secret, name, bytecode), MAC_LENGTH + bytecode.length);
+                System.arraycopy(bytecode, 0, entry, MAC_LENGTH, bytecode.length);
+                Files.write(tempFile, entry);
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (final IOException | UnsupportedOperationException | GeneralSecurityException ignored) {
+            // the cache is optional
+        }
+    }
+
+    /**
+     * Signs the entry's bytecode together with its name, so valid entries can't be swapped either.
+     */
+    private byte @NotNull [] mac(final @NotNull SecretKeySpec secret, final @NotNull String name, final byte @NotNull [] bytecode) throws GeneralSecurityException {
+        val mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(secret);
+        mac.update(name.getBytes(StandardCharsets.UTF_8));
+        return mac.doFinal(bytecode);
+    }
+
+    private @NotNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An opened cache directory.
+     *
+     * @param directory the cache directory.
+     * @param secret the entry signing key, or null if the directory isn't trusted.
+     */
+    private record Store(
+            @NotNull Path directory,
+            @Nullable SecretKeySpec secret
+    ) {}
+}
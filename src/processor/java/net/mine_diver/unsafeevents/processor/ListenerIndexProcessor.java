@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 mine_diver
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.mine_diver.unsafeevents.processor;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+import static net.mine_diver.unsafeevents.event.EventPhases.DEFAULT_PHASE;
+import static net.mine_diver.unsafeevents.listener.EventListener.DEFAULT_PRIORITY;
+import static net.mine_diver.unsafeevents.listener.ListenerIndex.COMPANION_SUFFIX;
+
+/**
+ * Annotation processor generating {@code ListenerIndex} companion classes
+ * for classes declaring {@code EventListener} methods.
+ *
+ * <p>
+ *     Each companion class lists the class's listener methods
+ *     and contains a plain Java executor for each of them,
+ *     so neither reflection nor runtime bytecode generation is needed
+ *     to register the class's listeners.
+ * </p>
+ *
+ * <p>
+ *     Classes that can't be indexed, for example, because of private
+ *     listener methods or parameter types that aren't accessible from the class's package,
+ *     are skipped and fall back to the runtime scan.
+ * </p>
+ *
+ * <p>
+ *     Shipped separately from the runtime library, as the {@code processor} classifier,
+ *     and has to be added to the {@code annotationProcessor} configuration explicitly.
+ *     The processor only reads annotations through their mirrors and uses compile-time constants,
+ *     so it doesn't need the runtime library on the processor path.
+ * </p>
+ *
+ * @author mine_diver
+ */
+@SupportedAnnotationTypes(ListenerIndexProcessor.EVENT_LISTENER_CLASS_NAME)
+public class ListenerIndexProcessor extends AbstractProcessor {
+    static final String EVENT_LISTENER_CLASS_NAME = "net.mine_diver.unsafeevents.listener.EventListener";
+    private static final String EVENT_CLASS_NAME = "net.mine_diver.unsafeevents.Event";
+    private static final String INDEX_CLASS_NAME = "net.mine_diver.unsafeevents.listener.ListenerIndex";
+    private static final String ENTRY_CLASS_NAME = INDEX_CLASS_NAME + ".Entry";
+    private static final String PRIORITY_CLASS_NAME = "net.mine_diver.unsafeevents.listener.ListenerPriority";
+    private static final String CUSTOM_PRIORITY_NAME = "CUSTOM";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final @NotNull Set<? extends TypeElement> annotations, final @NotNull RoundEnvironment roundEnv) {
+        val eventListenerType = processingEnv.getElementUtils().getTypeElement(EVENT_LISTENER_CLASS_NAME);
+        if (eventListenerType == null) return false;
+        val listenerClasses = new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+        for (val method : ElementFilter.methodsIn(roundEnv.getElementsAnnotatedWith(eventListenerType)))
+            listenerClasses.computeIfAbsent((TypeElement) method.getEnclosingElement(), type -> new ArrayList<>()).add(method);
+        listenerClasses.forEach((type, methods) -> {
+            if (isIndexable(type, methods)) generateIndex(type, methods);
+        });
+        // other processors may want to see the annotation as well
+        return false;
+    }
+
+    private boolean isIndexable(final @NotNull TypeElement type, final @NotNull List<@NotNull ExecutableElement> methods) {
+        val packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        if (!isAccessible(type, packageElement)) {
+            note(type, "Class %s isn't accessible from its package, skipping the listener index", type.getQualifiedName());
+            return false;
+        }
+        val eventType = processingEnv.getElementUtils().getTypeElement(EVENT_CLASS_NAME);
+        for (val method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                note(method, "Listener method %s#%s is private, skipping the listener index", type.getQualifiedName(), method.getSimpleName());
+                return false;
+            }
+            val parameters = method.getParameters();
+            if (parameters.size() != 1) {
+                warn(method, "Listener method %s#%s has a wrong amount of parameters, skipping the listener index", type.getQualifiedName(), method.getSimpleName());
+                return false;
+            }
+            val parameterType = parameters.get(0).asType();
+            if (
+                    parameterType.getKind() != TypeKind.DECLARED ||
+                            eventType == null ||
+                            !processingEnv.getTypeUtils().isSubtype(
+                                    processingEnv.getTypeUtils().erasure(parameterType),
+                                    processingEnv.getTypeUtils().erasure(eventType.asType())
+                            )
+            ) {
+                warn(method, "Listener method %s#%s's parameter type is not an event, skipping the listener index", type.getQualifiedName(), method.getSimpleName());
+                return false;
+            }
+            if (!isAccessible((TypeElement) ((DeclaredType) parameterType).asElement(), packageElement)) {
+                note(method, "Listener method %s#%s's parameter type isn't accessible, skipping the listener index", type.getQualifiedName(), method.getSimpleName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a type can be referenced from a top-level class of the specified package.
+     *
+     * <p>
+     *     Every type in the enclosing chain must be public, or non-private and declared
+     *     in the same package, as protected nested types from another package
+     *     are only accessible from subclasses of their enclosing type.
+     * </p>
+     */
+    private boolean isAccessible(final @NotNull TypeElement type, final @NotNull PackageElement from) {
+        val samePackage = processingEnv.getElementUtils().getPackageOf(type).equals(from);
+        for (@Nullable Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            val typeElement = (TypeElement) element;
+            val modifiers = typeElement.getModifiers();
+            if (
+                    modifiers.contains(Modifier.PRIVATE) ||
+                            typeElement.getNestingKind() == NestingKind.LOCAL ||
+                            typeElement.getNestingKind() == NestingKind.ANONYMOUS ||
+                            !modifiers.contains(Modifier.PUBLIC) && !samePackage
+            ) return false;
+        }
+        return true;
+    }
+
+    private void generateIndex(final @NotNull TypeElement type, final @NotNull List<@NotNull ExecutableElement> methods) {
+        val elements = processingEnv.getElementUtils();
+        val packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        val binaryName = elements.getBinaryName(type).toString();
+        val indexName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + COMPANION_SUFFIX;
+        val typeName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+        try (final PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? indexName : packageName + "." + indexName, type).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+            out.println("public final class " + indexName + " implements " + INDEX_CLASS_NAME + " {");
+            out.println("    private static final java.util.List<" + ENTRY_CLASS_NAME + "> LISTENERS = java.util.List.of(");
+            for (int i = 0; i < methods.size(); i++) {
+                val method = methods.get(i);
+                val eventListener = eventListenerValues(method);
+                val phase = (String) eventListener.get("phase");
+                val numPriority = (int) eventListener.get("numPriority");
+                val priority = ((VariableElement) eventListener.get("priority")).getSimpleName().toString();
+                // non-custom priorities are resolved by the compiled index, so the processor doesn't need their values
+                val custom = CUSTOM_PRIORITY_NAME.equals(priority);
+                out.printf(
+                        "            new %s(%d, %b, %s.class, %s, %s, %b, %b, %b, %b)%s%n",
+                        ENTRY_CLASS_NAME,
+                        i,
+                        method.getModifiers().contains(Modifier.STATIC),
+                        eventTypeName(method),
+                        DEFAULT_PHASE.equals(phase) ? "null" : elements.getConstantExpression(phase),
+                        custom ? String.valueOf(numPriority) : PRIORITY_CLASS_NAME + "." + priority + ".numPriority",
+                        custom && numPriority == DEFAULT_PRIORITY,
+                        eventListener.get("partitionSafe"),
+                        eventListener.get("concurrent"),
+                        eventListener.get("async"),
+                        i == methods.size() - 1 ? "" : ","
+                );
+            }
+            out.println("    );");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.List<" + ENTRY_CLASS_NAME + "> listeners() {");
+            out.println("        return LISTENERS;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.function.Consumer createExecutor(final int id, final Object target) {");
+            out.println("        return switch (id) {");
+            for (int i = 0; i < methods.size(); i++)
+                out.println("            case " + i + " -> " + (methods.get(i).getModifiers().contains(Modifier.STATIC) ? "Executor" + i + ".INSTANCE" : "new Executor" + i + "((" + typeName + ") target)") + ";");
+            out.println("            default -> throw new IndexOutOfBoundsException(id);");
+            out.println("        };");
+            out.println("    }");
+            for (int i = 0; i < methods.size(); i++) {
+                val method = methods.get(i);
+                val eventTypeName = eventTypeName(method);
+                out.println();
+                out.println("    private static final class Executor" + i + " implements java.util.function.Consumer<" + eventTypeName + "> {");
+                if (method.getModifiers().contains(Modifier.STATIC)) {
+                    out.println("        private static final Executor" + i + " INSTANCE = new Executor" + i + "();");
+                    out.println();
+                    out.println("        @Override");
+                    out.println("        public void accept(final " + eventTypeName + " event) {");
+                    out.println("            " + typeName + "." + method.getSimpleName() + "(event);");
+                } else {
+                    out.println("        private final " + typeName + " target;");
+                    out.println();
+                    out.println("        private Executor" + i + "(final " + typeName + " target) {");
+                    out.println("            this.target = target;");
+                    out.println("        }");
+                    out.println();
+                    out.println("        @Override");
+                    out.println("        public void accept(final " + eventTypeName + " event) {");
+                    out.println("            target." + method.getSimpleName() + "(event);");
+                }
+                out.println("        }");
+                out.println("    }");
+            }
+            out.println("}");
+        } catch (final IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the listener index of " + type.getQualifiedName() + ": " + e, type);
+        }
+    }
+
+    /**
+     * Reads the {@code EventListener} attributes of a method, including defaults.
+     *
+     * @param method the annotated method.
+     * @return the attribute values by name, with enum constants as their {@link VariableElement}s.
+     */
+    private @NotNull Map<@NotNull String, @NotNull Object> eventListenerValues(final @NotNull ExecutableElement method) {
+        val elements = processingEnv.getElementUtils();
+        for (val mirror : method.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(EVENT_LISTENER_CLASS_NAME)) continue;
+            val values = new HashMap<String, Object>();
+            elements.getElementValuesWithDefaults(mirror).forEach((attribute, value) -> values.put(attribute.getSimpleName().toString(), value.getValue()));
+            return values;
+        }
+        throw new IllegalStateException("Method " + method + " isn't annotated with " + EVENT_LISTENER_CLASS_NAME);
+    }
+
+    private @NotNull String eventTypeName(final @NotNull ExecutableElement method) {
+        return processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()).toString();
+    }
+
+    private void note(final @NotNull Element element, final @NotNull String format, final Object... args) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format(format, args), element);
+    }
+
+    private void warn(final @NotNull Element element, final @NotNull String format, final Object... args) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format(format, args), element);
+    }
+}
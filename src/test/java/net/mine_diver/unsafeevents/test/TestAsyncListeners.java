@@ -0,0 +1,107 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.EventPhases;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAsyncListeners {
+    @Test
+    public void eventIsFinishedOnceAsyncListenersAreDone() {
+        EventBus eventBus = new EventBus();
+        List<Runnable> queued = new ArrayList<>();
+        List<String> calls = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        eventBus.setAsyncListenerExecutor(queued::add);
+        eventBus.setAsyncCompletionHook((event, failure) -> {
+            calls.add("completed");
+            failures.add(failure);
+        });
+        eventBus.register(SimpleSingularListener.<AsyncEvent>builder()
+                .eventType(AsyncEvent.class)
+                .listener(event -> calls.add("async"))
+                .async(true)
+                .build());
+        eventBus.register(SimpleSingularListener.<AsyncEvent>builder()
+                .eventType(AsyncEvent.class)
+                .listener(event -> calls.add("sync"))
+                .priority(-1)
+                .build());
+        eventBus.register(SimpleSingularListener.<AsyncEvent>builder()
+                .eventType(AsyncEvent.class)
+                .listener(event -> {
+                    throw new IllegalStateException();
+                })
+                .async(true)
+                .build());
+
+        AsyncEvent event = eventBus.post(new AsyncEvent(calls));
+        assertEquals(List.of("sync"), calls);
+        assertEquals(2, queued.size());
+
+        queued.forEach(Runnable::run);
+        assertEquals(List.of("sync", "async", "completed", "finished"), calls);
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalStateException.class, failures.get(0));
+        assertEquals(1, event.finished);
+    }
+
+    @Test
+    public void rejectedListenersAreReportedAsFailures() {
+        EventBus eventBus = new EventBus();
+        List<Throwable> failures = new ArrayList<>();
+        eventBus.setAsyncListenerExecutor(runnable -> {
+            throw new RejectedExecutionException();
+        });
+        eventBus.setAsyncCompletionHook((event, failure) -> failures.add(failure));
+        eventBus.register(SimpleSingularListener.<AsyncEvent>builder()
+                .eventType(AsyncEvent.class)
+                .listener(event -> fail("rejected listener was run"))
+                .async(true)
+                .build());
+
+        AsyncEvent event = eventBus.post(new AsyncEvent(new ArrayList<>()));
+        assertEquals(1, failures.size());
+        assertInstanceOf(RejectedExecutionException.class, failures.get(0));
+        assertEquals(1, event.finished);
+    }
+
+    @Test
+    public void phaseRangesRunAsyncListenersInline() {
+        EventBus eventBus = new EventBus();
+        List<Runnable> queued = new ArrayList<>();
+        List<String> calls = new ArrayList<>();
+        eventBus.setAsyncListenerExecutor(queued::add);
+        eventBus.register(SimpleSingularListener.<AsyncEvent>builder()
+                .eventType(AsyncEvent.class)
+                .listener(event -> calls.add("async"))
+                .async(true)
+                .build());
+
+        eventBus.post(new AsyncEvent(calls), EventPhases.DEFAULT_PHASE, EventPhases.DEFAULT_PHASE);
+        assertEquals(List.of("async"), calls);
+        assertTrue(queued.isEmpty());
+    }
+
+    public static class AsyncEvent extends Event {
+        final List<String> calls;
+        int finished;
+
+        public AsyncEvent(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        protected void finish() {
+            calls.add("finished");
+            finished++;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.queue.BudgetedEventQueue;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBudgetedEventQueue {
+    @Test
+    public void higherPrioritiesAreDrainedFirst() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<CosmeticEvent>builder()
+                .eventType(CosmeticEvent.class)
+                .listener(event -> calls.add("cosmetic " + event.index))
+                .build());
+        eventBus.register(SimpleSingularListener.<UrgentEvent>builder()
+                .eventType(UrgentEvent.class)
+                .listener(event -> calls.add("urgent " + event.index))
+                .build());
+        BudgetedEventQueue queue = new BudgetedEventQueue(eventBus);
+        queue.setPriority(UrgentEvent.class, 10);
+
+        queue.post(new CosmeticEvent(0));
+        queue.post(new UrgentEvent(0));
+        queue.post(new CosmeticEvent(1));
+        queue.post(new UrgentEvent(1));
+        assertFalse(queue.isEmpty());
+
+        assertEquals(0, queue.drain(Duration.ZERO));
+        assertTrue(calls.isEmpty());
+
+        assertEquals(4, queue.drain(Duration.ofSeconds(10)));
+        assertEquals(List.of("urgent 0", "urgent 1", "cosmetic 0", "cosmetic 1"), calls);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void exhaustedBudgetLeavesEventsForNextDrain() {
+        EventBus eventBus = new EventBus();
+        List<Integer> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<CosmeticEvent>builder()
+                .eventType(CosmeticEvent.class)
+                .listener(event -> {
+                    calls.add(event.index);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .build());
+        BudgetedEventQueue queue = new BudgetedEventQueue(eventBus);
+        for (int i = 0; i < 3; i++) queue.post(new CosmeticEvent(i));
+
+        // the budget is only checked before each event, so the first one always overruns it
+        assertEquals(1, queue.drain(Duration.ofMillis(10)));
+        assertEquals(List.of(0), calls);
+        assertFalse(queue.isEmpty());
+
+        assertEquals(2, queue.drain(Duration.ofSeconds(10)));
+        assertEquals(List.of(0, 1, 2), calls);
+    }
+
+    @Test
+    public void eventsCanBePostedFromOtherThreads() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        List<Integer> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<CosmeticEvent>builder()
+                .eventType(CosmeticEvent.class)
+                .listener(event -> calls.add(event.index))
+                .build());
+        BudgetedEventQueue queue = new BudgetedEventQueue(eventBus);
+
+        Thread poster = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) queue.post(new CosmeticEvent(i));
+        });
+        poster.start();
+        poster.join();
+
+        assertEquals(1000, queue.drain(Duration.ofSeconds(10)));
+        for (int i = 0; i < 1000; i++) assertEquals(i, calls.get(i));
+    }
+
+    public static class CosmeticEvent extends Event {
+        final int index;
+
+        public CosmeticEvent(int index) {
+            this.index = index;
+        }
+    }
+
+    public static class UrgentEvent extends Event {
+        final int index;
+
+        public UrgentEvent(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.util.BytecodeCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TestBytecodeCache {
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void disableCache() {
+        BytecodeCache.setDirectory(null);
+    }
+
+    @Test
+    public void tamperedEntriesAreRegenerated() throws IOException {
+        Path cache = directory.resolve("cache");
+        BytecodeCache.setDirectory(cache);
+        AtomicInteger generated = new AtomicInteger();
+        byte[] bytecode = classFile();
+        Supplier<byte[]> generator = () -> {
+            generated.incrementAndGet();
+            return bytecode;
+        };
+
+        assertArrayEquals(bytecode, BytecodeCache.get("test", generator, TestBytecodeCache.class));
+        assertArrayEquals(bytecode, BytecodeCache.get("test", generator, TestBytecodeCache.class));
+        assertEquals(1, generated.get());
+
+        for (Path entry : entries(cache)) {
+            byte[] bytes = Files.readAllBytes(entry);
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(entry, bytes);
+        }
+        assertArrayEquals(bytecode, BytecodeCache.get("test", generator, TestBytecodeCache.class));
+        assertEquals(2, generated.get());
+    }
+
+    @Test
+    public void foreignWritableDirectoryIsIgnored() throws IOException {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path cache = Files.createDirectory(directory.resolve("shared"));
+        Files.setPosixFilePermissions(cache, PosixFilePermissions.fromString("rwxrwxrwx"));
+        BytecodeCache.setDirectory(cache);
+        byte[] bytecode = classFile();
+
+        BytecodeCache.get("test", () -> bytecode, TestBytecodeCache.class);
+        assertTrue(entries(cache).isEmpty());
+    }
+
+    private static List<Path> entries(Path cache) throws IOException {
+        try (Stream<Path> files = Files.list(cache)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".class")).collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] classFile() throws IOException {
+        try (InputStream in = TestBytecodeCache.class.getResourceAsStream("TestBytecodeCache.class")) {
+            return in.readAllBytes();
+        }
+    }
+}
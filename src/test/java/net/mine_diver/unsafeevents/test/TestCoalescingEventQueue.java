@@ -0,0 +1,134 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.Coalescable;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.queue.CoalescingEventQueue;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestCoalescingEventQueue {
+    @Test
+    public void latestEventPerKeyKeepsFirstPosition() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<MovedEvent>builder()
+                .eventType(MovedEvent.class)
+                .listener(event -> calls.add(event.entity + "@" + event.position))
+                .build());
+        eventBus.register(SimpleSingularListener.<PlainEvent>builder()
+                .eventType(PlainEvent.class)
+                .listener(event -> calls.add("plain"))
+                .build());
+        CoalescingEventQueue queue = new CoalescingEventQueue(eventBus);
+
+        queue.post(new MovedEvent("a", 1));
+        queue.post(new PlainEvent());
+        queue.post(new MovedEvent("b", 1));
+        queue.post(new MovedEvent("a", 2));
+        queue.post(new PlainEvent());
+        queue.post(new MovedEvent("a", 3));
+        assertEquals(4, queue.size());
+        assertTrue(calls.isEmpty());
+
+        queue.flush();
+        assertEquals(List.of("a@3", "plain", "b@1", "plain"), calls);
+        assertEquals(0, queue.size());
+
+        // keys are forgotten after a flush
+        calls.clear();
+        queue.post(new MovedEvent("a", 4));
+        queue.post(new MovedEvent("b", 2));
+        queue.flush();
+        assertEquals(List.of("a@4", "b@2"), calls);
+    }
+
+    @Test
+    public void eventsPostedDuringFlushWaitForNextFlush() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        CoalescingEventQueue queue = new CoalescingEventQueue(eventBus);
+        eventBus.register(SimpleSingularListener.<MovedEvent>builder()
+                .eventType(MovedEvent.class)
+                .listener(event -> {
+                    calls.add(event.entity + "@" + event.position);
+                    if (event.position == 1) queue.post(new MovedEvent(event.entity, 2));
+                    queue.flush();
+                })
+                .build());
+
+        queue.post(new MovedEvent("a", 1));
+        queue.flush();
+        assertEquals(List.of("a@1"), calls);
+        assertEquals(1, queue.size());
+
+        queue.flush();
+        assertEquals(List.of("a@1", "a@2"), calls);
+    }
+
+    @Test
+    public void replacedEventsAreFinished() {
+        EventBus eventBus = new EventBus();
+        List<Integer> dispatched = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<ReleasedEvent>builder()
+                .eventType(ReleasedEvent.class)
+                .listener(event -> dispatched.add(event.value))
+                .build());
+        CoalescingEventQueue queue = new CoalescingEventQueue(eventBus);
+        List<Integer> finished = new ArrayList<>();
+
+        queue.post(new ReleasedEvent(1, finished));
+        queue.post(new ReleasedEvent(2, finished));
+        queue.post(new ReleasedEvent(3, finished));
+        // superseded events are finished right away, without being dispatched
+        assertEquals(List.of(1, 2), finished);
+        assertTrue(dispatched.isEmpty());
+
+        queue.flush();
+        assertEquals(List.of(3), dispatched);
+        assertEquals(List.of(1, 2, 3), finished);
+    }
+
+    public static class MovedEvent extends Event implements Coalescable {
+        final String entity;
+        final int position;
+
+        public MovedEvent(String entity, int position) {
+            this.entity = entity;
+            this.position = position;
+        }
+
+        @Override
+        public @NotNull Object getCoalescingKey() {
+            return entity;
+        }
+    }
+
+    public static class ReleasedEvent extends Event implements Coalescable {
+        final int value;
+        final List<Integer> finished;
+
+        public ReleasedEvent(int value, List<Integer> finished) {
+            this.value = value;
+            this.finished = finished;
+        }
+
+        @Override
+        public @NotNull Object getCoalescingKey() {
+            return "key";
+        }
+
+        @Override
+        protected void finish() {
+            finished.add(value);
+        }
+    }
+
+    public static class PlainEvent extends Event {}
+}
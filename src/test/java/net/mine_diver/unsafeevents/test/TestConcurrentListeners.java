@@ -0,0 +1,109 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConcurrentListeners {
+    @Test
+    public void batchRunsConcurrentlyAndFinishesBeforeNextListener() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EventBus eventBus = new EventBus();
+            eventBus.setConcurrentListenerPool(pool);
+            CountDownLatch started = new CountDownLatch(4);
+            AtomicInteger finished = new AtomicInteger();
+            for (int i = 0; i < 4; i++)
+                eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                        .eventType(BatchedEvent.class)
+                        .listener(event -> {
+                            // only completes if all listeners of the batch run at the same time
+                            started.countDown();
+                            try {
+                                assertTrue(started.await(10, TimeUnit.SECONDS));
+                            } catch (InterruptedException e) {
+                                throw new RuntimeException(e);
+                            }
+                            finished.incrementAndGet();
+                        })
+                        .concurrent(true)
+                        .build());
+            int[] finishedBeforeLast = new int[1];
+            eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                    .eventType(BatchedEvent.class)
+                    .listener(event -> finishedBeforeLast[0] = finished.get())
+                    .priority(-1)
+                    .build());
+
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> eventBus.post(new BatchedEvent()));
+            assertEquals(4, finishedBeforeLast[0]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void failuresAreReportedAfterWholeBatch() {
+        EventBus eventBus = new EventBus();
+        AtomicInteger finished = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                .eventType(BatchedEvent.class)
+                .listener(event -> {
+                    throw new IllegalStateException();
+                })
+                .concurrent(true)
+                .build());
+        eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                .eventType(BatchedEvent.class)
+                .listener(event -> finished.incrementAndGet())
+                .concurrent(true)
+                .build());
+        eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                .eventType(BatchedEvent.class)
+                .listener(event -> {
+                    throw new UnsupportedOperationException();
+                })
+                .concurrent(true)
+                .build());
+
+        DispatchException exception = assertThrows(DispatchException.class, () -> eventBus.post(new BatchedEvent()));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, exception.getCause().getSuppressed().length);
+        assertInstanceOf(UnsupportedOperationException.class, exception.getCause().getSuppressed()[0]);
+        assertEquals(1, finished.get());
+    }
+
+    @Test
+    public void postingFromPoolWorkerDoesntBlockIt() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            EventBus eventBus = new EventBus();
+            eventBus.setConcurrentListenerPool(pool);
+            AtomicInteger dispatched = new AtomicInteger();
+            for (int i = 0; i < 8; i++)
+                eventBus.register(SimpleSingularListener.<BatchedEvent>builder()
+                        .eventType(BatchedEvent.class)
+                        .listener(event -> dispatched.incrementAndGet())
+                        .concurrent(true)
+                        .build());
+
+            // the only worker has to run the forked listeners itself
+            pool.submit(() -> eventBus.post(new BatchedEvent())).get(10, TimeUnit.SECONDS);
+            assertEquals(8, dispatched.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static class BatchedEvent extends Event {}
+}
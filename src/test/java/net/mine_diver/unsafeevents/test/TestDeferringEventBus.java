@@ -0,0 +1,122 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.eventbus.DeferringEventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.util.exception.DispatchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDeferringEventBus {
+    @Test
+    public void longChainsDontGrowTheStack() {
+        DeferringEventBus eventBus = new DeferringEventBus();
+        int[] dispatched = new int[1];
+        eventBus.register(SimpleSingularListener.<ChainEvent>builder()
+                .eventType(ChainEvent.class)
+                .listener(event -> {
+                    dispatched[0]++;
+                    if (event.depth < 100_000) eventBus.post(new ChainEvent(event.depth + 1));
+                })
+                .build());
+
+        eventBus.post(new ChainEvent(0));
+        assertEquals(100_001, dispatched[0]);
+    }
+
+    @Test
+    public void deferredEventsAreDispatchedBreadthFirst() {
+        DeferringEventBus eventBus = new DeferringEventBus();
+        List<Integer> calls = new ArrayList<>();
+        // enough children to grow the ring buffer after it wrapped around
+        eventBus.register(SimpleSingularListener.<ChainEvent>builder()
+                .eventType(ChainEvent.class)
+                .listener(event -> {
+                    calls.add(event.depth);
+                    if (event.depth == 0) for (int i = 1; i <= 10; i++) eventBus.post(new ChainEvent(i));
+                    else if (event.depth <= 10) for (int i = 0; i < 3; i++) eventBus.post(new ChainEvent(event.depth * 100 + i));
+                })
+                .build());
+        eventBus.register(SimpleSingularListener.<ChainEvent>builder()
+                .eventType(ChainEvent.class)
+                .listener(event -> calls.add(-1))
+                .priority(-1)
+                .build());
+
+        eventBus.post(new ChainEvent(0));
+        List<Integer> expected = new ArrayList<>();
+        expected.add(0);
+        expected.add(-1);
+        for (int i = 1; i <= 10; i++) {
+            expected.add(i);
+            expected.add(-1);
+        }
+        for (int i = 1; i <= 10; i++)
+            for (int j = 0; j < 3; j++) {
+                expected.add(i * 100 + j);
+                expected.add(-1);
+            }
+        assertEquals(expected, calls);
+    }
+
+    @Test
+    public void synchronousTypesAreDispatchedRightAway() {
+        DeferringEventBus eventBus = new DeferringEventBus();
+        eventBus.setSynchronous(SynchronousEvent.class, true);
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<SynchronousEvent>builder()
+                .eventType(SynchronousEvent.class)
+                .listener(event -> calls.add("synchronous"))
+                .build());
+        eventBus.register(SimpleSingularListener.<ChainEvent>builder()
+                .eventType(ChainEvent.class)
+                .listener(event -> {
+                    if (event.depth == 0) {
+                        eventBus.post(new ChainEvent(1));
+                        eventBus.post(new SynchronousEvent());
+                    }
+                    calls.add("chain " + event.depth);
+                })
+                .build());
+
+        eventBus.post(new ChainEvent(0));
+        assertEquals(List.of("synchronous", "chain 0", "chain 1"), calls);
+    }
+
+    @Test
+    public void failedDispatchDropsDeferredEvents() {
+        DeferringEventBus eventBus = new DeferringEventBus();
+        List<Integer> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<ChainEvent>builder()
+                .eventType(ChainEvent.class)
+                .listener(event -> {
+                    calls.add(event.depth);
+                    if (event.depth == 0) {
+                        eventBus.post(new ChainEvent(1));
+                        eventBus.post(new ChainEvent(2));
+                    } else if (event.depth == 1) throw new IllegalStateException();
+                })
+                .build());
+
+        assertThrows(DispatchException.class, () -> eventBus.post(new ChainEvent(0)));
+        assertEquals(List.of(0, 1), calls);
+
+        calls.clear();
+        eventBus.post(new ChainEvent(3));
+        assertEquals(List.of(3), calls);
+    }
+
+    public static class ChainEvent extends Event {
+        final int depth;
+
+        public ChainEvent(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    public static class SynchronousEvent extends Event {}
+}
@@ -0,0 +1,228 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.DeadEvent;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.transform.EventSubclassTransformer;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEventFinish {
+    @Test
+    public void singleListenerFinishesOnce() {
+        InspectedEventBus eventBus = new InspectedEventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> calls.add("listener"))
+                .build());
+
+        FinishingEvent event = eventBus.post(new FinishingEvent());
+        assertEquals(List.of("listener"), calls);
+        assertEquals(List.of("finished"), event.calls);
+    }
+
+    @Test
+    public void singleListenerOfNoopEventIsTheRegistry() {
+        InspectedEventBus eventBus = new InspectedEventBus();
+        List<String> calls = new ArrayList<>();
+        Consumer<PlainEvent> listener = event -> calls.add("listener");
+        eventBus.register(SimpleSingularListener.<PlainEvent>builder()
+                .eventType(PlainEvent.class)
+                .listener(listener)
+                .build());
+
+        assertTrue(Event.isFinishNoop(PlainEvent.class));
+        eventBus.post(new PlainEvent());
+        assertEquals(List.of("listener"), calls);
+        // no wrapper to call finish
+        assertSame(listener, eventBus.registry(PlainEvent.class));
+    }
+
+    @Test
+    public void multipleListenersFinishOnce() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> calls.add("first"))
+                .priority(1)
+                .build());
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> calls.add("second"))
+                .build());
+
+        FinishingEvent event = eventBus.post(new FinishingEvent());
+        assertEquals(List.of("first", "second"), calls);
+        assertEquals(List.of("finished"), event.calls);
+    }
+
+    @Test
+    public void deadEventFinishesOnce() {
+        EventBus eventBus = new EventBus();
+        assertEquals(List.of("finished"), eventBus.post(new FinishingEvent()).calls);
+
+        List<Event> deadEvents = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<DeadEvent>builder()
+                .eventType(DeadEvent.class)
+                .listener(deadEvent -> deadEvents.add(deadEvent.getEvent()))
+                .build());
+        FinishingEvent event = eventBus.post(new FinishingEvent());
+        assertEquals(List.of(event), deadEvents);
+        assertEquals(List.of("finished"), event.calls);
+    }
+
+    @Test
+    public void disabledGroupsFinishOnce() {
+        InspectedEventBus eventBus = new InspectedEventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> calls.add("listener"))
+                .group("debug")
+                .build());
+        eventBus.register(SimpleSingularListener.<PlainEvent>builder()
+                .eventType(PlainEvent.class)
+                .listener(event -> calls.add("listener"))
+                .group("debug")
+                .build());
+        List<Event> deadEvents = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<DeadEvent>builder()
+                .eventType(DeadEvent.class)
+                .listener(deadEvent -> deadEvents.add(deadEvent.getEvent()))
+                .build());
+        eventBus.setGroupEnabled("debug", false);
+
+        FinishingEvent event = eventBus.post(new FinishingEvent());
+        eventBus.post(new PlainEvent());
+        assertEquals(List.of(), calls);
+        assertEquals(List.of(), deadEvents);
+        assertEquals(List.of("finished"), event.calls);
+        assertTrue(eventBus.isNoop(PlainEvent.class));
+    }
+
+    @Test
+    public void asyncListenersFinishOnce() {
+        EventBus eventBus = new EventBus();
+        List<Runnable> queued = new ArrayList<>();
+        eventBus.setAsyncListenerExecutor(queued::add);
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> event.calls.add("async"))
+                .async(true)
+                .build());
+
+        FinishingEvent asyncOnly = eventBus.post(new FinishingEvent());
+        assertEquals(List.of(), asyncOnly.calls);
+        queued.forEach(Runnable::run);
+        assertEquals(List.of("async", "finished"), asyncOnly.calls);
+
+        queued.clear();
+        eventBus.register(SimpleSingularListener.<FinishingEvent>builder()
+                .eventType(FinishingEvent.class)
+                .listener(event -> event.calls.add("sync"))
+                .build());
+        FinishingEvent mixed = eventBus.post(new FinishingEvent());
+        assertEquals(List.of("sync"), mixed.calls);
+        queued.forEach(Runnable::run);
+        assertEquals(List.of("sync", "async", "finished"), mixed.calls);
+    }
+
+    @Test
+    public void transformedSubclassesKeepTheParentFinish() throws ReflectiveOperationException, IOException {
+        Class<? extends FinishingEvent> inheriting = transform(InheritingEvent.class);
+        Class<? extends FinishingEvent> overriding = transform(OverridingEvent.class);
+        Class<? extends PlainEvent> plain = transform(PlainSubEvent.class);
+        assertFalse(inheriting.getDeclaredField(EventSubclassTransformer.FIELD_FINISHNOOP_NAME).getBoolean(null));
+        assertFalse(overriding.getDeclaredField(EventSubclassTransformer.FIELD_FINISHNOOP_NAME).getBoolean(null));
+        assertTrue(plain.getDeclaredField(EventSubclassTransformer.FIELD_FINISHNOOP_NAME).getBoolean(null));
+        assertFalse(Event.isFinishNoop(inheriting));
+        assertFalse(Event.isFinishNoop(overriding));
+        assertTrue(Event.isFinishNoop(plain));
+
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        listen(eventBus, inheriting, calls);
+        listen(eventBus, overriding, calls);
+
+        FinishingEvent inheritingEvent = eventBus.post(inheriting.getConstructor().newInstance());
+        FinishingEvent overridingEvent = eventBus.post(overriding.getConstructor().newInstance());
+        assertEquals(List.of(inheriting.getName(), overriding.getName()), calls);
+        assertEquals(List.of("finished"), inheritingEvent.calls);
+        assertEquals(List.of("overridden", "finished"), overridingEvent.calls);
+    }
+
+    private static <EVENT extends Event> void listen(EventBus eventBus, Class<EVENT> eventType, List<String> calls) {
+        eventBus.register(SimpleSingularListener.<EVENT>builder()
+                .eventType(eventType)
+                .listener(event -> calls.add(event.getClass().getName()))
+                .build());
+    }
+
+    /**
+     * Loads a copy of the specified event type passed through {@link EventSubclassTransformer}.
+     */
+    private static <EVENT extends Event> Class<? extends EVENT> transform(Class<EVENT> eventType) throws IOException {
+        ClassNode eventNode = new ClassNode();
+        try (InputStream in = eventType.getResourceAsStream("/" + eventType.getName().replace('.', '/') + ".class")) {
+            new ClassReader(in.readAllBytes()).accept(eventNode, 0);
+        }
+        ClassLoader parent = TestEventFinish.class.getClassLoader();
+        assertTrue(EventSubclassTransformer.transform(parent, eventNode));
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        eventNode.accept(writer);
+        byte[] bytes = writer.toByteArray();
+        Class<?> transformed = new ClassLoader(parent) {
+            Class<?> define() {
+                return defineClass(eventType.getName(), bytes, 0, bytes.length);
+            }
+        }.define();
+        //noinspection unchecked
+        return (Class<? extends EVENT>) transformed;
+    }
+
+    private static class InspectedEventBus extends EventBus {
+        Consumer<? extends Event> registry(Class<? extends Event> eventType) {
+            return registriesArray[Event.getEventID(eventType)];
+        }
+
+        boolean isNoop(Class<? extends Event> eventType) {
+            return registry(eventType) == NO_LISTENERS;
+        }
+    }
+
+    public static class PlainEvent extends Event {}
+
+    public static class PlainSubEvent extends PlainEvent {}
+
+    public static class FinishingEvent extends Event {
+        public final List<String> calls = new ArrayList<>();
+
+        @Override
+        protected void finish() {
+            calls.add("finished");
+        }
+    }
+
+    public static class InheritingEvent extends FinishingEvent {}
+
+    public static class OverridingEvent extends FinishingEvent {
+        @Override
+        protected void finish() {
+            calls.add("overridden");
+            super.finish();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.queue.EventPipeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEventPipeline {
+    @Test
+    public void routedEventsAreDispatchedInOrder() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        List<Integer> calls = new ArrayList<>();
+        List<Integer> lateCalls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<PipelinedEvent>builder()
+                .eventType(PipelinedEvent.class)
+                .listener(event -> calls.add(event.index))
+                .build());
+        EventPipeline pipeline = EventPipeline.builder()
+                .bus(eventBus)
+                .bufferSize(16)
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> pipeline.publish(new PipelinedEvent(0)));
+        pipeline.route(PipelinedEvent.class);
+
+        for (int i = 0; i < 1000; i++) pipeline.publish(new PipelinedEvent(i));
+        // not seen by the consumer until the registries are refreshed
+        eventBus.register(SimpleSingularListener.<PipelinedEvent>builder()
+                .eventType(PipelinedEvent.class)
+                .listener(event -> lateCalls.add(event.index))
+                .build());
+        pipeline.close();
+
+        assertEquals(1000, calls.size());
+        for (int i = 0; i < 1000; i++) assertEquals(i, calls.get(i));
+        assertTrue(lateCalls.isEmpty());
+        assertThrows(IllegalStateException.class, () -> pipeline.publish(new PipelinedEvent(0)));
+        assertThrows(IllegalStateException.class, () -> pipeline.tryPublish(new PipelinedEvent(0)));
+    }
+
+    @Test
+    public void refreshPicksUpListenerChanges() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        AtomicInteger dispatched = new AtomicInteger();
+        EventPipeline pipeline = EventPipeline.builder()
+                .bus(eventBus)
+                .build();
+        pipeline.route(PipelinedEvent.class);
+        eventBus.register(SimpleSingularListener.<PipelinedEvent>builder()
+                .eventType(PipelinedEvent.class)
+                .listener(event -> dispatched.incrementAndGet())
+                .build());
+        pipeline.refresh();
+
+        pipeline.publish(new PipelinedEvent(0));
+        pipeline.close();
+        assertEquals(1, dispatched.get());
+    }
+
+    @Test
+    public void throwingExceptionHandlerDoesntStopConsumers() {
+        EventBus eventBus = new EventBus();
+        AtomicInteger dispatched = new AtomicInteger();
+        AtomicInteger handlerFailures = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<PipelinedEvent>builder()
+                .eventType(PipelinedEvent.class)
+                .listener(event -> {
+                    dispatched.incrementAndGet();
+                    throw new IllegalStateException();
+                })
+                .build());
+        EventPipeline pipeline = EventPipeline.builder()
+                .bus(eventBus)
+                .threadFactory(runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    thread.setUncaughtExceptionHandler((t, e) -> handlerFailures.incrementAndGet());
+                    return thread;
+                })
+                .exceptionHandler(throwable -> {
+                    throw new RuntimeException(throwable);
+                })
+                .build();
+        pipeline.route(PipelinedEvent.class);
+
+        for (int i = 0; i < 10; i++) pipeline.publish(new PipelinedEvent(i));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::close);
+        assertEquals(10, dispatched.get());
+        assertEquals(10, handlerFailures.get());
+    }
+
+    @Test
+    public void eventsPublishedBeforeCloseAreDispatched() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            EventBus eventBus = new EventBus();
+            AtomicInteger dispatched = new AtomicInteger();
+            eventBus.register(SimpleSingularListener.<PipelinedEvent>builder()
+                    .eventType(PipelinedEvent.class)
+                    .listener(event -> dispatched.incrementAndGet())
+                    .build());
+            EventPipeline pipeline = EventPipeline.builder()
+                    .bus(eventBus)
+                    .consumers(2)
+                    .build();
+            pipeline.route(PipelinedEvent.class);
+
+            AtomicInteger published = new AtomicInteger();
+            Thread[] producers = new Thread[4];
+            for (int i = 0; i < producers.length; i++) {
+                producers[i] = new Thread(() -> {
+                    try {
+                        while (true) {
+                            pipeline.publish(new PipelinedEvent(0));
+                            published.incrementAndGet();
+                        }
+                    } catch (IllegalStateException closed) {
+                        // the pipeline was closed
+                    }
+                });
+                producers[i].start();
+            }
+            Thread.sleep(5);
+            assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::close);
+            for (Thread producer : producers) producer.join();
+            assertEquals(published.get(), dispatched.get());
+        }
+    }
+
+    public static class PipelinedEvent extends Event {
+        final int index;
+
+        public PipelinedEvent(int index) {
+            this.index = index;
+        }
+    }
+}
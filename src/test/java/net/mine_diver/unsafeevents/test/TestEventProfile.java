@@ -0,0 +1,170 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.EventProfile;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEventProfile {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void savedProfileLoadsTheSameCounts() throws IOException {
+        EventBus eventBus = new EventBus();
+        eventBus.register(SimpleSingularListener.<RareEvent>builder()
+                .eventType(RareEvent.class)
+                .listener(event -> {})
+                .build());
+        eventBus.register(SimpleSingularListener.<FrequentEvent>builder()
+                .eventType(FrequentEvent.class)
+                .listener(event -> {})
+                .build());
+        eventBus.startProfiling(new EventProfile());
+        eventBus.post(new RareEvent());
+        for (int i = 0; i < 3; i++) eventBus.post(new FrequentEvent());
+        // not listened to, so not recorded
+        eventBus.post(new UnlistenedEvent());
+        EventProfile profile = eventBus.stopProfiling();
+        assertNotNull(profile);
+        assertEquals(1, profile.getCount(RareEvent.class));
+        assertEquals(3, profile.getCount(FrequentEvent.class));
+        assertEquals(0, profile.getCount(UnlistenedEvent.class));
+
+        Path file = directory.resolve("profile.txt");
+        profile.save(file);
+        assertEquals(List.of("3 " + FrequentEvent.class.getName(), "1 " + RareEvent.class.getName()), Files.readAllLines(file));
+
+        EventProfile loaded = EventProfile.load(file);
+        assertEquals(1, loaded.getCount(RareEvent.class));
+        assertEquals(3, loaded.getCount(FrequentEvent.class));
+        assertEquals(List.of(FrequentEvent.class, RareEvent.class), loaded.resolve(getClass().getClassLoader()));
+    }
+
+    @Test
+    public void loadMergesCountsAndSkipsMalformedLines() throws IOException {
+        Path file = directory.resolve("profile.txt");
+        Files.write(file, List.of(
+                "2 " + RareEvent.class.getName(),
+                "not a count",
+                "x " + FrequentEvent.class.getName(),
+                "",
+                "3 " + RareEvent.class.getName()
+        ));
+
+        EventProfile profile = EventProfile.load(file);
+        assertEquals(5, profile.getCount(RareEvent.class));
+        assertEquals(0, profile.getCount(FrequentEvent.class));
+    }
+
+    @Test
+    public void warmUpCompilesProfiledTypes() throws IOException {
+        Path file = directory.resolve("profile.txt");
+        Files.write(file, List.of(
+                "3 " + FrequentEvent.class.getName(),
+                "2 " + RareEvent.class.getName(),
+                // unresolvable names are skipped
+                "1 net.mine_diver.unsafeevents.test.MissingEvent",
+                "1 " + String.class.getName()
+        ));
+        EventProfile profile = EventProfile.load(file);
+        assertEquals(List.of(FrequentEvent.class, RareEvent.class), profile.resolve(getClass().getClassLoader()));
+
+        EventBus eventBus = new EventBus();
+        CountingListener<FrequentEvent> frequent = new CountingListener<>(FrequentEvent.class);
+        CountingListener<RareEvent> rare = new CountingListener<>(RareEvent.class);
+        CountingListener<UnlistenedEvent> unprofiled = new CountingListener<>(UnlistenedEvent.class);
+        eventBus.register(frequent);
+        eventBus.register(rare);
+        eventBus.register(unprofiled);
+
+        eventBus.warmUp(profile);
+        assertEquals(1, frequent.compilations.get());
+        assertEquals(1, rare.compilations.get());
+        assertEquals(0, unprofiled.compilations.get());
+
+        eventBus.post(new FrequentEvent());
+        eventBus.post(new RareEvent());
+        assertEquals(1, frequent.compilations.get(), "warmed up registry was compiled again");
+        assertEquals(1, rare.compilations.get(), "warmed up registry was compiled again");
+        assertEquals(1, frequent.dispatches.get());
+        assertEquals(1, rare.dispatches.get());
+    }
+
+    @Test
+    public void profileCanBeSavedWhileRecording() throws IOException, InterruptedException {
+        EventBus eventBus = new EventBus();
+        eventBus.register(SimpleSingularListener.<RareEvent>builder()
+                .eventType(RareEvent.class)
+                .listener(event -> {})
+                .build());
+        eventBus.register(SimpleSingularListener.<FrequentEvent>builder()
+                .eventType(FrequentEvent.class)
+                .listener(event -> {})
+                .build());
+        EventProfile profile = new EventProfile();
+        eventBus.startProfiling(profile);
+        // compiling the counting registries before dispatching from another thread
+        eventBus.declareEvents(RareEvent.class, FrequentEvent.class);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread recorder = new Thread(() -> {
+            while (running.get()) {
+                eventBus.post(new RareEvent());
+                eventBus.post(new FrequentEvent());
+            }
+        });
+        recorder.start();
+        try {
+            Path file = directory.resolve("profile.txt");
+            for (int i = 0; i < 100; i++) {
+                profile.save(file);
+                assertEquals(2, Files.readAllLines(file).size());
+            }
+        } finally {
+            running.set(false);
+            recorder.join();
+        }
+    }
+
+    public static class RareEvent extends Event {}
+
+    public static class FrequentEvent extends Event {}
+
+    public static class UnlistenedEvent extends Event {}
+
+    private static class CountingListener<EVENT extends Event> implements SingularListener<EVENT> {
+        final Class<EVENT> eventType;
+        final AtomicInteger compilations = new AtomicInteger();
+        final AtomicInteger dispatches = new AtomicInteger();
+
+        CountingListener(Class<EVENT> eventType) {
+            this.eventType = eventType;
+        }
+
+        @Override
+        public @NotNull Class<EVENT> eventType() {
+            return eventType;
+        }
+
+        @Override
+        public @NotNull Consumer<@NotNull EVENT> listener() {
+            compilations.incrementAndGet();
+            return event -> dispatches.incrementAndGet();
+        }
+    }
+}
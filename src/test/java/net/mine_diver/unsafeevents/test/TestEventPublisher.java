@@ -0,0 +1,111 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.flow.EventPublisher;
+import net.mine_diver.unsafeevents.flow.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestEventPublisher {
+    @Test
+    public void bufferedEventsWaitForDemand() {
+        EventBus eventBus = new EventBus();
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        new EventPublisher<>(eventBus, PublishedEvent.class, 2, OverflowPolicy.DROP_OLDEST).subscribe(subscriber);
+
+        for (int i = 0; i < 4; i++) eventBus.post(new PublishedEvent(i));
+        assertEquals(List.of(0), subscriber.received);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(0, 2, 3), subscriber.received);
+        eventBus.post(new PublishedEvent(4));
+        assertEquals(List.of(0, 2, 3, 4), subscriber.received);
+    }
+
+    @Test
+    public void cancellingUnregistersRightAwayWithOwner() {
+        EventBus eventBus = new EventBus();
+        eventBus.setOwner(Thread.currentThread());
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        new EventPublisher<>(eventBus, PublishedEvent.class).subscribe(subscriber);
+        assertTrue(eventBus.hasListeners(PublishedEvent.class));
+
+        subscriber.subscription.cancel();
+        assertFalse(eventBus.hasListeners(PublishedEvent.class));
+        eventBus.post(new PublishedEvent(0));
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    @Test
+    public void cancellingWithoutOwnerUnregistersOnNextDispatch() {
+        EventBus eventBus = new EventBus();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        new EventPublisher<>(eventBus, PublishedEvent.class).subscribe(subscriber);
+
+        subscriber.subscription.cancel();
+        assertTrue(eventBus.hasListeners(PublishedEvent.class));
+        eventBus.post(new PublishedEvent(0));
+        assertTrue(subscriber.received.isEmpty());
+        assertFalse(eventBus.hasListeners(PublishedEvent.class));
+    }
+
+    @Test
+    public void blockingGivesUpAfterTimeout() {
+        EventBus eventBus = new EventBus();
+        // only requests from onNext, and not past the first event
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        new EventPublisher<>(eventBus, PublishedEvent.class, 1, OverflowPolicy.BLOCK, Duration.ofMillis(50)).subscribe(subscriber);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 3; i++) eventBus.post(new PublishedEvent(i));
+        });
+        assertEquals(List.of(0), subscriber.received);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(0, 1), subscriber.received);
+    }
+
+    public static class PublishedEvent extends Event {
+        final int index;
+
+        public PublishedEvent(int index) {
+            this.index = index;
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<PublishedEvent> {
+        final long initialRequest;
+        final List<Integer> received = new ArrayList<>();
+        Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(PublishedEvent item) {
+            received.add(item.index);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {}
+    }
+}
@@ -0,0 +1,50 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHasListeners {
+    @Test
+    public void unregisteredListenersAreNotCounted() {
+        EventBus eventBus = new EventBus();
+        assertFalse(eventBus.hasListeners(CheckedEvent.class));
+
+        SingularListener<CheckedEvent> listener = SimpleSingularListener.<CheckedEvent>builder()
+                .eventType(CheckedEvent.class)
+                .listener(event -> {})
+                .build();
+        eventBus.register(listener);
+        assertTrue(eventBus.hasListeners(CheckedEvent.class));
+        eventBus.post(new CheckedEvent());
+        assertTrue(eventBus.hasListeners(CheckedEvent.class));
+
+        // the registry is only scheduled for compilation here, not compiled
+        eventBus.unregister(listener);
+        assertFalse(eventBus.hasListeners(CheckedEvent.class));
+        assertNull(eventBus.post(CheckedEvent.class, CheckedEvent::new));
+    }
+
+    @Test
+    public void disabledGroupsAreNotCounted() {
+        EventBus eventBus = new EventBus();
+        eventBus.register(SimpleSingularListener.<CheckedEvent>builder()
+                .eventType(CheckedEvent.class)
+                .listener(event -> {})
+                .group("debug")
+                .build());
+        assertTrue(eventBus.hasListeners(CheckedEvent.class));
+
+        eventBus.setGroupEnabled("debug", false);
+        assertFalse(eventBus.hasListeners(CheckedEvent.class));
+
+        eventBus.setGroupEnabled("debug", true);
+        assertTrue(eventBus.hasListeners(CheckedEvent.class));
+    }
+
+    public static class CheckedEvent extends Event {}
+}
@@ -0,0 +1,74 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.Listener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+public class TestLazyListeners {
+    private static final int METHODS = 200;
+
+    @Test
+    public void executorsAreGeneratedOnFirstPostOfTheirType() throws ReflectiveOperationException {
+        EventBus eventBus = new EventBus();
+        List<SingularListener<?>> listeners = new ArrayList<>();
+        for (Method method : MethodHandles.lookup().defineClass(generateListenerClass()).getDeclaredMethods()) {
+            SingularListener<?> listener = Listener.reflection().method(method).build();
+            eventBus.register(listener);
+            listeners.add(listener);
+        }
+        assertEquals(METHODS, listeners.size());
+        for (SingularListener<?> listener : listeners)
+            assertFalse(isCreated(listener), "executor was generated during registration");
+
+        eventBus.post(new LazyEvent());
+        for (SingularListener<?> listener : listeners)
+            assertEquals(listener.eventType() == LazyEvent.class, isCreated(listener), "executor was generated for the wrong event type");
+
+        eventBus.post(new OtherEvent());
+        for (SingularListener<?> listener : listeners)
+            assertTrue(isCreated(listener), "executor wasn't generated on the first post");
+    }
+
+    /**
+     * Checks whether the lazy listener has created its executor, without creating it.
+     */
+    private static boolean isCreated(SingularListener<?> listener) throws ReflectiveOperationException {
+        Field executor = listener.getClass().getDeclaredField("listener");
+        executor.setAccessible(true);
+        return executor.get(listener) != null;
+    }
+
+    private static byte[] generateListenerClass() {
+        String name = Type.getInternalName(TestLazyListeners.class) + "$Generated";
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V17, ACC_PUBLIC | ACC_FINAL, name, null, "java/lang/Object", null);
+        for (int i = 0; i < METHODS; i++) {
+            Class<?> eventType = i % 2 == 0 ? LazyEvent.class : OtherEvent.class;
+            MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC, "listener" + i, Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(eventType)), null, null);
+            method.visitCode();
+            method.visitInsn(RETURN);
+            method.visitMaxs(0, 1);
+            method.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    public static class LazyEvent extends Event {}
+
+    public static class OtherEvent extends Event {}
+}
@@ -0,0 +1,18 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.listener.Listener;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestListenerAccess {
+    @Test
+    public void inaccessibleMethodFailsOnRegistration() throws NoSuchMethodException {
+        // no privileged lookup is registered, so the error mustn't wait for the first post
+        assertThrows(IllegalStateException.class, () -> Listener.reflection()
+                .method(TestListenerAccess.class.getDeclaredMethod("listen", TestEvent.class))
+                .build());
+    }
+
+    private static void listen(TestEvent event) {}
+}
@@ -0,0 +1,44 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestListenerGroups {
+    @Test
+    public void disabledGroupsAreSkipped() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<GroupedEvent>builder()
+                .eventType(GroupedEvent.class)
+                .listener(event -> calls.add("debug"))
+                .group("debug")
+                .build());
+        eventBus.register(SimpleSingularListener.<GroupedEvent>builder()
+                .eventType(GroupedEvent.class)
+                .listener(event -> calls.add("always"))
+                .build());
+
+        eventBus.post(new GroupedEvent());
+        assertEquals(List.of("debug", "always"), calls);
+
+        calls.clear();
+        eventBus.setGroupEnabled("debug", false);
+        assertFalse(eventBus.isGroupEnabled("debug"));
+        eventBus.post(new GroupedEvent());
+        assertEquals(List.of("always"), calls);
+
+        calls.clear();
+        eventBus.setGroupEnabled("debug", true);
+        eventBus.post(new GroupedEvent());
+        assertEquals(List.of("debug", "always"), calls);
+    }
+
+    public static class GroupedEvent extends Event {}
+}
@@ -0,0 +1,56 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestListenerIndex {
+    @Test
+    public void indexedListenersMatchReflection() throws ClassNotFoundException {
+        // generated by the processor wired through testIndexedAnnotationProcessor
+        Class<?> indexClass = Class.forName(IndexedListener.class.getName() + ListenerIndex.COMPANION_SUFFIX);
+
+        IndexedListener indexed = new IndexedListener();
+        List<SingularListener<?>> indexedListeners = new ArrayList<>();
+        Listener.object().listener(indexed).build().accept(indexedListeners::add);
+        for (SingularListener<?> listener : indexedListeners)
+            assertSame(indexClass, listener.listener().getClass().getEnclosingClass(), "listener wasn't created from the index");
+
+        IndexedListener scanned = new IndexedListener();
+        List<SingularListener<?>> scannedListeners = new ArrayList<>();
+        for (Method method : IndexedListener.class.getDeclaredMethods())
+            if (method.isAnnotationPresent(EventListener.class))
+                scannedListeners.add(Listener.reflection().listener(scanned).method(method).build());
+        assertEquals(describe(scannedListeners), describe(indexedListeners));
+
+        EventBus indexedBus = new EventBus();
+        indexedBus.register(Listener.object().listener(indexed).build());
+        indexedBus.post(new IndexedEvent());
+        EventBus scannedBus = new EventBus();
+        scannedListeners.forEach(scannedBus::register);
+        scannedBus.post(new IndexedEvent());
+        assertEquals(List.of("high", "custom", "normal"), indexed.calls);
+        assertEquals(scanned.calls, indexed.calls);
+    }
+
+    @Test
+    public void testFixturesAreNotIndexed() {
+        // the rest of the fixtures cover the runtime scan
+        for (Class<?> listenerClass : List.of(TestListener.class, TestObject.class, TestStaticMethods.class, TestSuperObject.class))
+            assertThrows(ClassNotFoundException.class, () -> Class.forName(listenerClass.getName() + ListenerIndex.COMPANION_SUFFIX));
+    }
+
+    private static Set<String> describe(List<SingularListener<?>> listeners) {
+        return listeners.stream()
+                .map(listener -> listener.eventType().getName() + " " + listener.phase() + " " + listener.priority() + " " + listener.concurrent())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,78 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.eventbus.ManagedEventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.util.exception.IllegalDispatchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestManagedEventBus {
+    @Test
+    public void disablesSingleEventType() {
+        ManagedEventBus eventBus = new ManagedEventBus();
+        AtomicInteger saves = new AtomicInteger();
+        AtomicInteger ticks = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<SaveEvent>builder()
+                .eventType(SaveEvent.class)
+                .listener(event -> saves.incrementAndGet())
+                .build());
+        eventBus.register(SimpleSingularListener.<TickEvent>builder()
+                .eventType(TickEvent.class)
+                .listener(event -> ticks.incrementAndGet())
+                .build());
+
+        eventBus.disableDispatch(SaveEvent.class, "saving");
+        assertTrue(eventBus.isDispatchDisabled(SaveEvent.class));
+        assertFalse(eventBus.isDispatchDisabled(TickEvent.class));
+        assertThrows(IllegalDispatchException.class, () -> eventBus.post(new SaveEvent()));
+        eventBus.post(new TickEvent());
+        assertEquals(0, saves.get());
+        assertEquals(1, ticks.get());
+
+        eventBus.enableDispatch(SaveEvent.class);
+        eventBus.post(new SaveEvent());
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    public void wholeBusDisableKeepsTypeDisable() {
+        ManagedEventBus eventBus = new ManagedEventBus();
+        eventBus.register(SimpleSingularListener.<SaveEvent>builder()
+                .eventType(SaveEvent.class)
+                .listener(event -> {})
+                .build());
+        eventBus.disableDispatch(SaveEvent.class, "saving");
+        eventBus.disableDispatch("registering");
+        assertThrows(IllegalDispatchException.class, () -> eventBus.post(new TickEvent()));
+
+        eventBus.enableDispatch();
+        eventBus.post(new TickEvent());
+        assertThrows(IllegalDispatchException.class, () -> eventBus.post(new SaveEvent()));
+    }
+
+    @Test
+    public void disableFromOtherThreadIsHandedOff() throws InterruptedException {
+        ManagedEventBus eventBus = new ManagedEventBus();
+        eventBus.setOwner(Thread.currentThread());
+        eventBus.register(SimpleSingularListener.<SaveEvent>builder()
+                .eventType(SaveEvent.class)
+                .listener(event -> {})
+                .build());
+
+        Thread thread = new Thread(() -> eventBus.disableDispatch(SaveEvent.class, "saving"));
+        thread.start();
+        thread.join();
+        assertFalse(eventBus.isDispatchDisabled(SaveEvent.class), "handed off changes wait for the owner");
+
+        assertThrows(IllegalDispatchException.class, () -> eventBus.post(new SaveEvent()));
+        assertTrue(eventBus.isDispatchDisabled(SaveEvent.class));
+    }
+
+    public static class SaveEvent extends Event {}
+
+    public static class TickEvent extends Event {}
+}
@@ -0,0 +1,106 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestParallelCompilation {
+    @Test
+    public void declaredEventsCompileOnTheGivenPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            EventBus eventBus = new EventBus();
+            List<String> calls = new ArrayList<>();
+            CheckedListener<FirstEvent> first = new CheckedListener<>(FirstEvent.class, event -> calls.add("first"));
+            CheckedListener<SecondEvent> second = new CheckedListener<>(SecondEvent.class, event -> calls.add("second"));
+            eventBus.register(first);
+            eventBus.register(second);
+
+            eventBus.declareEvents(pool, FirstEvent.class, SecondEvent.class);
+            assertSame(pool, first.compiledOn);
+            assertSame(pool, second.compiledOn);
+
+            eventBus.post(new FirstEvent());
+            eventBus.post(new SecondEvent());
+            assertEquals(List.of("first", "second"), calls);
+            assertEquals(1, first.compilations.get(), "the registry was compiled again on dispatch");
+            assertEquals(1, second.compilations.get(), "the registry was compiled again on dispatch");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void failedCompilationIsScheduledAgain() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            EventBus eventBus = new EventBus();
+            AtomicInteger calls = new AtomicInteger();
+            CheckedListener<FirstEvent> failing = new CheckedListener<>(FirstEvent.class, event -> calls.incrementAndGet());
+            failing.failure = new IllegalStateException("failed to compile");
+            eventBus.register(failing);
+            eventBus.register(SimpleSingularListener.<SecondEvent>builder()
+                    .eventType(SecondEvent.class)
+                    .listener(event -> calls.incrementAndGet())
+                    .build());
+
+            // joining a task from another thread may rethrow a copy of the failure, caused by the original one
+            IllegalStateException compileFailure = assertThrows(IllegalStateException.class, () -> eventBus.compileRegistriesParallel(pool));
+            assertTrue(compileFailure == failing.failure || compileFailure.getCause() == failing.failure);
+
+            // the failure is reported again on the first dispatch
+            assertSame(failing.failure, assertThrows(IllegalStateException.class, () -> eventBus.post(new FirstEvent())));
+            assertEquals(0, calls.get());
+
+            failing.failure = null;
+            eventBus.post(new FirstEvent());
+            eventBus.post(new SecondEvent());
+            assertEquals(2, calls.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static class FirstEvent extends Event {}
+
+    public static class SecondEvent extends Event {}
+
+    private static class CheckedListener<EVENT extends Event> implements SingularListener<EVENT> {
+        final Class<EVENT> eventType;
+        final Consumer<EVENT> listener;
+        final AtomicInteger compilations = new AtomicInteger();
+        volatile ForkJoinPool compiledOn;
+        volatile RuntimeException failure;
+
+        CheckedListener(Class<EVENT> eventType, Consumer<EVENT> listener) {
+            this.eventType = eventType;
+            this.listener = listener;
+        }
+
+        @Override
+        public @NotNull Class<EVENT> eventType() {
+            return eventType;
+        }
+
+        @Override
+        public @NotNull Consumer<@NotNull EVENT> listener() {
+            compilations.incrementAndGet();
+            compiledOn = ForkJoinTask.getPool();
+            RuntimeException failure = this.failure;
+            if (failure != null) throw failure;
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.queue.PartitionedDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPartitionedDispatcher {
+    @Test
+    public void eventsOfTheSameKeyKeepTheirOrder() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+        eventBus.register(SimpleSingularListener.<KeyedEvent>builder()
+                .eventType(KeyedEvent.class)
+                .listener(event -> received.computeIfAbsent(event.key, key -> new ArrayList<>()).add(event.sequence))
+                .partitionSafe(true)
+                .build());
+        PartitionedDispatcher dispatcher = PartitionedDispatcher.builder()
+                .bus(eventBus)
+                .lanes(4)
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> dispatcher.submit(new KeyedEvent(0, 0)));
+        dispatcher.partition(KeyedEvent.class, event -> event.key);
+
+        for (int sequence = 0; sequence < 1000; sequence++)
+            for (int key = 0; key < 16; key++)
+                dispatcher.submit(new KeyedEvent(key, sequence));
+        dispatcher.barrier();
+
+        assertEquals(16, received.size());
+        for (List<Integer> sequences : received.values()) {
+            assertEquals(1000, sequences.size());
+            for (int i = 0; i < 1000; i++) assertEquals(i, sequences.get(i));
+        }
+        dispatcher.close();
+        assertThrows(IllegalStateException.class, () -> dispatcher.submit(new KeyedEvent(0, 0)));
+    }
+
+    @Test
+    public void onlyPartitionSafeListenersAreAccepted() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        AtomicInteger dispatched = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<KeyedEvent>builder()
+                .eventType(KeyedEvent.class)
+                .listener(event -> dispatched.incrementAndGet())
+                .partitionSafe(true)
+                .build());
+        PartitionedDispatcher dispatcher = PartitionedDispatcher.builder()
+                .bus(eventBus)
+                .lanes(2)
+                .build();
+        dispatcher.partition(KeyedEvent.class, event -> event.key);
+
+        eventBus.register(SimpleSingularListener.<KeyedEvent>builder()
+                .eventType(KeyedEvent.class)
+                .listener(event -> {})
+                .build());
+        assertThrows(IllegalStateException.class, dispatcher::refresh);
+
+        // the lanes keep the registries captured before
+        dispatcher.submit(new KeyedEvent(0, 0));
+        dispatcher.barrier();
+        assertEquals(1, dispatched.get());
+        dispatcher.close();
+    }
+
+    @Test
+    public void throwingExceptionHandlerDoesntStopLanes() {
+        EventBus eventBus = new EventBus();
+        AtomicInteger handlerFailures = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<KeyedEvent>builder()
+                .eventType(KeyedEvent.class)
+                .listener(event -> {
+                    throw new IllegalStateException();
+                })
+                .partitionSafe(true)
+                .build());
+        PartitionedDispatcher dispatcher = PartitionedDispatcher.builder()
+                .bus(eventBus)
+                .lanes(1)
+                .threadFactory(runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    thread.setUncaughtExceptionHandler((t, e) -> handlerFailures.incrementAndGet());
+                    return thread;
+                })
+                .exceptionHandler(throwable -> {
+                    throw new RuntimeException(throwable);
+                })
+                .build();
+        dispatcher.partition(KeyedEvent.class, event -> event.key);
+
+        for (int i = 0; i < 10; i++) dispatcher.submit(new KeyedEvent(i, 0));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), dispatcher::barrier);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), dispatcher::close);
+        assertEquals(10, handlerFailures.get());
+    }
+
+    public static class KeyedEvent extends Event {
+        final int key;
+        final int sequence;
+
+        public KeyedEvent(int key, int sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package net.mine_diver.unsafeevents.test;
+
+import it.unimi.dsi.fastutil.Pair;
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.event.EventPhases;
+import net.mine_diver.unsafeevents.event.PhaseOrdering;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPhaseOrdering {
+    private static final int PHASES = 50;
+
+    @Test
+    public void singleAndBatchOrderingsAgree() {
+        Random random = new Random(42);
+        List<Pair<String, String>> orderings = new ArrayList<>();
+        while (orderings.size() < 200) {
+            int first = random.nextInt(PHASES);
+            int second = random.nextInt(PHASES);
+            // edges only go from lower to higher numbers, so there are no cycles
+            if (first != second)
+                orderings.add(Pair.of("phase" + Math.min(first, second), "phase" + Math.max(first, second)));
+        }
+
+        PhaseOrdering<SingleEvent> single = PhaseOrdering.of(SingleEvent.class);
+        for (Pair<String, String> ordering : orderings)
+            single.addPhaseOrdering(ordering.left(), ordering.right());
+        PhaseOrdering<BatchEvent> batch = PhaseOrdering.of(BatchEvent.class);
+        batch.addPhaseOrderings(orderings);
+
+        for (int i = 0; i < PHASES; i++)
+            assertEquals(single.getPhaseRank("phase" + i), batch.getPhaseRank("phase" + i), "phase" + i);
+    }
+
+    @Test
+    public void cyclicBatchIsRolledBack() {
+        PhaseOrdering<CyclicEvent> ordering = PhaseOrdering.of(CyclicEvent.class);
+        ordering.addPhaseOrdering("first", "second");
+        int unknown = ordering.getPhaseRank("unknown");
+
+        assertThrows(IllegalStateException.class, () -> ordering.addPhaseOrderings(List.of(
+                Pair.of("second", "new"),
+                Pair.of("new", "first")
+        )));
+
+        assertEquals(unknown, ordering.getPhaseRank("new"), "phases of a rolled back batch must be removed");
+        assertEquals(unknown, ordering.getPhaseRank("unknown"));
+        assertTrue(ordering.getPhaseRank("first") < ordering.getPhaseRank("second"));
+    }
+
+    @Test
+    public void sortedListenersMatchTheComparator() {
+        PhaseOrdering<SortedEvent> ordering = PhaseOrdering.of(SortedEvent.class);
+        ordering.addPhaseOrdering("first", EventPhases.DEFAULT_PHASE);
+        ordering.addPhaseOrdering(EventPhases.DEFAULT_PHASE, "last");
+        ordering.addPhaseOrdering("first", "middle");
+        ordering.addPhaseOrdering("middle", "last");
+
+        Random random = new Random(42);
+        // unknown phases go after the known ones, and few priorities, so there are plenty of ties
+        String[] phases = { "first", "middle", EventPhases.DEFAULT_PHASE, "last", "unknown", "other unknown" };
+        SingularListener<?>[] listeners = new SingularListener<?>[500];
+        for (int i = 0; i < listeners.length; i++)
+            listeners[i] = listener(SortedEvent.class, phases[random.nextInt(phases.length)], random.nextInt(3) - 1);
+        assertSortedLikeComparator(ordering, listeners);
+    }
+
+    @Test
+    public void addedOrderingsRerankListeners() {
+        PhaseOrdering<RerankedEvent> ordering = PhaseOrdering.of(RerankedEvent.class);
+        ordering.addPhaseOrdering("early", EventPhases.DEFAULT_PHASE);
+        SingularListener<?>[] listeners = {
+                listener(RerankedEvent.class, EventPhases.DEFAULT_PHASE, 0),
+                listener(RerankedEvent.class, "late", 1),
+                listener(RerankedEvent.class, "early", 0),
+                listener(RerankedEvent.class, "late", 0),
+                listener(RerankedEvent.class, "early", 1)
+        };
+        SingularListener<?>[] sorted = assertSortedLikeComparator(ordering, listeners);
+        assertEquals("late", sorted[sorted.length - 1].phase());
+
+        // "late" was unknown, so it went last, now it goes first
+        ordering.addPhaseOrdering("late", "early");
+        sorted = assertSortedLikeComparator(ordering, listeners);
+        assertSame(listeners[1], sorted[0]);
+        assertSame(listeners[3], sorted[1]);
+        assertSame(listeners[4], sorted[2]);
+        assertSame(listeners[2], sorted[3]);
+        assertSame(listeners[0], sorted[4]);
+    }
+
+    /**
+     * Checks that {@link PhaseOrdering#sortListeners(SingularListener[])} sorts the same way
+     * as a stable sort with {@link PhaseOrdering#getListenerComparator()},
+     * and that its offsets match the phase ranks.
+     *
+     * @return the sorted copy of the listeners.
+     */
+    private static SingularListener<?>[] assertSortedLikeComparator(PhaseOrdering<?> ordering, SingularListener<?>[] listeners) {
+        SingularListener<?>[] expected = listeners.clone();
+        Arrays.sort(expected, ordering.getListenerComparator());
+        SingularListener<?>[] sorted = listeners.clone();
+        int[] offsets = ordering.sortListeners(sorted);
+        for (int i = 0; i < expected.length; i++)
+            assertSame(expected[i], sorted[i], "listener " + i);
+        int unknown = ordering.getPhaseRank("unknown phase");
+        assertEquals(unknown + 2, offsets.length);
+        assertEquals(0, offsets[0]);
+        assertEquals(sorted.length, offsets[offsets.length - 1]);
+        for (int rank = 0; rank <= unknown; rank++)
+            for (int i = offsets[rank]; i < offsets[rank + 1]; i++)
+                assertEquals(rank, ordering.getPhaseRank(sorted[i].phase()), "listener " + i);
+        return sorted;
+    }
+
+    private static <EVENT extends Event> SingularListener<EVENT> listener(Class<EVENT> eventType, String phase, int priority) {
+        return SimpleSingularListener.<EVENT>builder()
+                .eventType(eventType)
+                .listener(event -> {})
+                .phase(phase)
+                .priority(priority)
+                .build();
+    }
+
+    public static class SingleEvent extends Event {}
+
+    public static class BatchEvent extends Event {}
+
+    public static class CyclicEvent extends Event {}
+
+    public static class SortedEvent extends Event {}
+
+    public static class RerankedEvent extends Event {}
+}
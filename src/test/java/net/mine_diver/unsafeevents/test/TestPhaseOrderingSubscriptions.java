@@ -0,0 +1,88 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.PhaseOrdering;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPhaseOrderingSubscriptions {
+    @Test
+    public void onlyBusesListeningToTheTypeAreNotified() {
+        NotifiedEventBus eventBus = new NotifiedEventBus();
+        PhaseOrdering<SubscribedEvent> ordering = PhaseOrdering.of(SubscribedEvent.class);
+        eventBus.register(SimpleSingularListener.<OtherEvent>builder()
+                .eventType(OtherEvent.class)
+                .listener(event -> {})
+                .build());
+        ordering.addPhaseOrdering("before", "after");
+        assertEquals(List.of(), eventBus.invalidated);
+
+        SingularListener<SubscribedEvent> first = SimpleSingularListener.<SubscribedEvent>builder()
+                .eventType(SubscribedEvent.class)
+                .listener(event -> {})
+                .build();
+        SingularListener<SubscribedEvent> second = SimpleSingularListener.<SubscribedEvent>builder()
+                .eventType(SubscribedEvent.class)
+                .listener(event -> {})
+                .build();
+        eventBus.register(first);
+        eventBus.register(second);
+        ordering.addPhaseOrdering("after", "last");
+        assertEquals(List.of(SubscribedEvent.class), eventBus.invalidated);
+
+        // still has a listener of the type
+        eventBus.unregister(first);
+        ordering.addPhaseOrdering("last", "very last");
+        assertEquals(List.of(SubscribedEvent.class, SubscribedEvent.class), eventBus.invalidated);
+
+        eventBus.unregister(second);
+        ordering.addPhaseOrdering("very last", "the end");
+        assertEquals(List.of(SubscribedEvent.class, SubscribedEvent.class), eventBus.invalidated);
+    }
+
+    @Test
+    public void subscribedBusesCanBeCollected() throws InterruptedException {
+        WeakReference<EventBus> reference = registerAndDrop();
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get(), "the phase ordering kept the bus reachable");
+        // notifying the remaining subscribers still works
+        PhaseOrdering.of(CollectedEvent.class).addPhaseOrdering("before", "after");
+    }
+
+    private static WeakReference<EventBus> registerAndDrop() {
+        EventBus eventBus = new EventBus();
+        eventBus.register(SimpleSingularListener.<CollectedEvent>builder()
+                .eventType(CollectedEvent.class)
+                .listener(event -> {})
+                .build());
+        eventBus.post(new CollectedEvent());
+        return new WeakReference<>(eventBus);
+    }
+
+    private static class NotifiedEventBus extends EventBus {
+        final List<Class<?>> invalidated = new ArrayList<>();
+
+        @Override
+        public <EVENT extends Event> void phaseOrderingInvalidated(PhaseOrdering<EVENT> ordering) {
+            invalidated.add(ordering.eventType);
+            super.phaseOrderingInvalidated(ordering);
+        }
+    }
+
+    public static class SubscribedEvent extends Event {}
+
+    public static class OtherEvent extends Event {}
+
+    public static class CollectedEvent extends Event {}
+}
@@ -0,0 +1,42 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.EventPhases;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestPhaseRanges {
+    @Test
+    public void postsOnlyTheRequestedPhases() {
+        List<String> calls = new ArrayList<>();
+        EventBus eventBus = new EventBus();
+        for (String phase : new String[] { "post", "default", "pre" })
+            eventBus.register(SimpleSingularListener.<PhasedEvent>builder()
+                    .eventType(PhasedEvent.class)
+                    .listener(event -> calls.add(phase))
+                    .phase(phase)
+                    .build());
+
+        eventBus.post(new PhasedEvent(), "pre", "pre");
+        assertEquals(List.of("pre"), calls);
+
+        calls.clear();
+        eventBus.post(new PhasedEvent(), "default", "post");
+        assertEquals(List.of("default", "post"), calls);
+
+        calls.clear();
+        eventBus.post(new PhasedEvent());
+        assertEquals(List.of("pre", "default", "post"), calls);
+
+        assertThrows(IllegalArgumentException.class, () -> eventBus.post(new PhasedEvent(), "post", "pre"));
+    }
+
+    @EventPhases({ "pre", "default", "post" })
+    public static class PhasedEvent extends Event {}
+}
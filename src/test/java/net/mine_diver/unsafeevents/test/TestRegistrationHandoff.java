@@ -0,0 +1,146 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.PhaseOrdering;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.listener.SingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRegistrationHandoff {
+    @Test
+    public void registrationsFromOtherThreadsApplyOnOwner() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        eventBus.setOwner(Thread.currentThread());
+        AtomicInteger dispatched = new AtomicInteger();
+        SingularListener<HandedOffEvent> listener = SimpleSingularListener.<HandedOffEvent>builder()
+                .eventType(HandedOffEvent.class)
+                .listener(event -> dispatched.incrementAndGet())
+                .build();
+
+        Thread registrar = new Thread(() -> eventBus.register(listener));
+        registrar.start();
+        registrar.join();
+        eventBus.post(new HandedOffEvent());
+        assertEquals(1, dispatched.get());
+
+        Thread unregistrar = new Thread(() -> eventBus.unregister(listener));
+        unregistrar.start();
+        unregistrar.join();
+        // not dispatched, as the unregistration is applied first
+        eventBus.post(new HandedOffEvent());
+        assertEquals(1, dispatched.get());
+        assertFalse(eventBus.hasListeners(HandedOffEvent.class));
+    }
+
+    @Test
+    public void concurrentRegistrationsAreNotLost() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        eventBus.setOwner(Thread.currentThread());
+        AtomicInteger dispatched = new AtomicInteger();
+        Thread[] registrars = new Thread[4];
+        for (int i = 0; i < registrars.length; i++) {
+            registrars[i] = new Thread(() -> {
+                for (int j = 0; j < 250; j++)
+                    eventBus.register(SimpleSingularListener.<HandedOffEvent>builder()
+                            .eventType(HandedOffEvent.class)
+                            .listener(event -> dispatched.incrementAndGet())
+                            .build());
+            });
+            registrars[i].start();
+        }
+        // dispatching while the registrations race with the owner applying them
+        for (Thread registrar : registrars)
+            while (registrar.isAlive()) eventBus.post(new HandedOffEvent());
+        for (Thread registrar : registrars) registrar.join();
+
+        dispatched.set(0);
+        eventBus.post(new HandedOffEvent());
+        assertEquals(1000, dispatched.get());
+    }
+
+    @Test
+    public void failedHandoffsGoToOwnersUncaughtHandler() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        Thread owner = Thread.currentThread();
+        eventBus.setOwner(owner);
+        List<Throwable> failures = new ArrayList<>();
+        Thread.UncaughtExceptionHandler previousHandler = owner.getUncaughtExceptionHandler();
+        owner.setUncaughtExceptionHandler((thread, throwable) -> failures.add(throwable));
+        try {
+            Thread unregistrar = new Thread(() -> eventBus.unregister(SimpleSingularListener.<HandedOffEvent>builder()
+                    .eventType(HandedOffEvent.class)
+                    .listener(event -> {})
+                    .build()));
+            unregistrar.start();
+            unregistrar.join();
+
+            eventBus.applyPending();
+            assertEquals(1, failures.size());
+            assertInstanceOf(IllegalArgumentException.class, failures.get(0));
+        } finally {
+            owner.setUncaughtExceptionHandler(previousHandler);
+        }
+    }
+
+    @Test
+    public void phaseOrderingsFromOtherThreadsApplyOnOwner() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        eventBus.setOwner(Thread.currentThread());
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<OrderedEvent>builder()
+                .eventType(OrderedEvent.class)
+                .listener(event -> calls.add("late"))
+                .phase("late")
+                .build());
+        eventBus.register(SimpleSingularListener.<OrderedEvent>builder()
+                .eventType(OrderedEvent.class)
+                .listener(event -> calls.add("early"))
+                .phase("early")
+                .build());
+        eventBus.post(new OrderedEvent());
+        // both phases are unknown, so the listeners are in registration order
+        assertEquals(List.of("late", "early"), calls);
+
+        Thread orderer = new Thread(() -> PhaseOrdering.of(OrderedEvent.class).addPhaseOrdering("early", "late"));
+        orderer.start();
+        // dispatching while the invalidation races with the owner
+        while (orderer.isAlive()) eventBus.post(new OrderedEvent());
+        orderer.join();
+
+        calls.clear();
+        eventBus.post(new OrderedEvent());
+        assertEquals(List.of("early", "late"), calls);
+    }
+
+    @Test
+    public void groupTogglesFromOtherThreadsApplyOnOwner() throws InterruptedException {
+        EventBus eventBus = new EventBus();
+        eventBus.setOwner(Thread.currentThread());
+        AtomicInteger dispatched = new AtomicInteger();
+        eventBus.register(SimpleSingularListener.<HandedOffEvent>builder()
+                .eventType(HandedOffEvent.class)
+                .listener(event -> dispatched.incrementAndGet())
+                .group("debug")
+                .build());
+
+        Thread toggler = new Thread(() -> eventBus.setGroupEnabled("debug", false));
+        toggler.start();
+        toggler.join();
+        // not applied until the owner reaches a safe point
+        assertTrue(eventBus.isGroupEnabled("debug"));
+        eventBus.post(new HandedOffEvent());
+        assertFalse(eventBus.isGroupEnabled("debug"));
+        assertEquals(0, dispatched.get());
+    }
+
+    public static class HandedOffEvent extends Event {}
+
+    public static class OrderedEvent extends Event {}
+}
@@ -0,0 +1,96 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import net.mine_diver.unsafeevents.queue.ScheduledEventQueue;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestScheduledEventQueue {
+    @Test
+    public void eventsAreDispatchedInTickOrder() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        eventBus.register(SimpleSingularListener.<TimedEvent>builder()
+                .eventType(TimedEvent.class)
+                .listener(event -> calls.add(event.name))
+                .build());
+        // a small wheel, so some delays take more than one round
+        ScheduledEventQueue queue = new ScheduledEventQueue(eventBus, 4, Duration.ZERO);
+
+        queue.postLater(new TimedEvent("c"), 9);
+        queue.postLater(new TimedEvent("a1"), 1);
+        queue.postLater(new TimedEvent("b"), 5);
+        queue.postLater(new TimedEvent("a2"), 1);
+        queue.postAt(new TimedEvent("late"), -3);
+
+        queue.advance(1);
+        assertEquals(List.of("a1", "a2", "late"), calls);
+        queue.advance(4);
+        assertEquals(List.of("a1", "a2", "late", "b"), calls);
+        queue.advance(3);
+        assertEquals(4, calls.size());
+        queue.advance(1);
+        assertEquals(List.of("a1", "a2", "late", "b", "c"), calls);
+        assertEquals(9, queue.getCurrentTick());
+    }
+
+    @Test
+    public void cancelledEventsAreNotDispatched() {
+        EventBus eventBus = new EventBus();
+        List<String> calls = new ArrayList<>();
+        ScheduledEventQueue queue = new ScheduledEventQueue(eventBus);
+        ScheduledEventQueue.ScheduledEvent[] cancelledByListener = new ScheduledEventQueue.ScheduledEvent[1];
+        eventBus.register(SimpleSingularListener.<TimedEvent>builder()
+                .eventType(TimedEvent.class)
+                .listener(event -> {
+                    calls.add(event.name);
+                    if (event.name.equals("first")) {
+                        // due at the same tick, so it's already unlinked
+                        assertTrue(cancelledByListener[0].cancel());
+                        queue.postLater(new TimedEvent("rescheduled"), 0);
+                    }
+                })
+                .build());
+
+        ScheduledEventQueue.ScheduledEvent cancelled = queue.postLater(new TimedEvent("cancelled"), 2);
+        queue.postLater(new TimedEvent("first"), 2);
+        cancelledByListener[0] = queue.postLater(new TimedEvent("second"), 2);
+        ScheduledEventQueue.ScheduledEvent third = queue.postLater(new TimedEvent("third"), 2);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+
+        queue.advance(2);
+        assertEquals(List.of("first", "third"), calls);
+        assertTrue(cancelledByListener[0].isCancelled());
+        assertFalse(third.cancel());
+
+        queue.advance(1);
+        assertEquals(List.of("first", "third", "rescheduled"), calls);
+    }
+
+    @Test
+    public void durationDelaysNeedTickDuration() {
+        EventBus eventBus = new EventBus();
+        assertThrows(IllegalStateException.class, () -> new ScheduledEventQueue(eventBus).postLater(new TimedEvent("a"), Duration.ofSeconds(1)));
+        assertThrows(IllegalStateException.class, () -> new ScheduledEventQueue(eventBus).update());
+
+        ScheduledEventQueue queue = new ScheduledEventQueue(eventBus, Duration.ofMillis(50));
+        assertEquals(2, queue.postLater(new TimedEvent("a"), Duration.ofMillis(51)).getTick());
+    }
+
+    public static class TimedEvent extends Event {
+        final String name;
+
+        public TimedEvent(String name) {
+            this.name = name;
+        }
+    }
+}
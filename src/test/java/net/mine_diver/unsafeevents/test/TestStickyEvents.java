@@ -0,0 +1,115 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+import net.mine_diver.unsafeevents.EventBus;
+import net.mine_diver.unsafeevents.event.Sticky;
+import net.mine_diver.unsafeevents.eventbus.ManagedEventBus;
+import net.mine_diver.unsafeevents.eventbus.StickyEventBus;
+import net.mine_diver.unsafeevents.listener.SimpleSingularListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestStickyEvents {
+    @Test
+    public void lateListenersReceiveLastStickyEvent() {
+        StickyEventBus eventBus = new StickyEventBus(new EventBus());
+        List<StickyEvent> received = new ArrayList<>();
+
+        // kept even without listeners
+        eventBus.post(new StickyEvent());
+        StickyEvent last = eventBus.post(new StickyEvent());
+        assertSame(last, eventBus.getStickyEvent(StickyEvent.class));
+
+        eventBus.register(SimpleSingularListener.<StickyEvent>builder()
+                .eventType(StickyEvent.class)
+                .listener(received::add)
+                .build());
+        assertEquals(List.of(last), received);
+
+        // kept with listeners too
+        StickyEvent next = eventBus.post(new StickyEvent());
+        assertSame(next, eventBus.getStickyEvent(StickyEvent.class));
+        received.clear();
+        eventBus.register(SimpleSingularListener.<StickyEvent>builder()
+                .eventType(StickyEvent.class)
+                .listener(received::add)
+                .group("debug")
+                .build());
+        assertEquals(List.of(next), received);
+
+        eventBus.removeStickyEvent(StickyEvent.class);
+        assertNull(eventBus.getStickyEvent(StickyEvent.class));
+        received.clear();
+        eventBus.register(SimpleSingularListener.<StickyEvent>builder()
+                .eventType(StickyEvent.class)
+                .listener(received::add)
+                .build());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void postStickyKeepsUnannotatedEvents() {
+        EventBus bus = new EventBus();
+        StickyEventBus eventBus = new StickyEventBus(bus);
+        List<PlainEvent> received = new ArrayList<>();
+
+        eventBus.post(new PlainEvent());
+        assertNull(eventBus.getStickyEvent(PlainEvent.class));
+
+        PlainEvent sticky = eventBus.postSticky(new PlainEvent());
+        eventBus.post(new PlainEvent());
+        assertSame(sticky, eventBus.getStickyEvent(PlainEvent.class));
+
+        bus.setGroupEnabled("debug", false);
+        eventBus.register(SimpleSingularListener.<PlainEvent>builder()
+                .eventType(PlainEvent.class)
+                .listener(received::add)
+                .group("debug")
+                .build());
+        assertTrue(received.isEmpty());
+        eventBus.register(SimpleSingularListener.<PlainEvent>builder()
+                .eventType(PlainEvent.class)
+                .listener(received::add)
+                .build());
+        assertEquals(List.of(sticky), received);
+    }
+
+    @Test
+    public void eventsPostedToTheDecoratedBusAreNotKept() {
+        EventBus bus = new EventBus();
+        StickyEventBus eventBus = new StickyEventBus(bus);
+        bus.post(new StickyEvent());
+        assertNull(eventBus.getStickyEvent(StickyEvent.class));
+    }
+
+    @Test
+    public void disabledDispatchSkipsLateListeners() {
+        ManagedEventBus bus = new ManagedEventBus();
+        StickyEventBus eventBus = new StickyEventBus(bus);
+        List<StickyEvent> received = new ArrayList<>();
+        StickyEvent sticky = eventBus.post(new StickyEvent());
+
+        bus.disableDispatch(StickyEvent.class, "loading");
+        eventBus.register(SimpleSingularListener.<StickyEvent>builder()
+                .eventType(StickyEvent.class)
+                .listener(received::add)
+                .build());
+        assertTrue(received.isEmpty());
+
+        bus.enableDispatch(StickyEvent.class);
+        eventBus.register(SimpleSingularListener.<StickyEvent>builder()
+                .eventType(StickyEvent.class)
+                .listener(received::add)
+                .build());
+        assertEquals(List.of(sticky), received);
+    }
+
+    @Sticky
+    public static class StickyEvent extends Event {}
+
+    public static class PlainEvent extends Event {}
+}
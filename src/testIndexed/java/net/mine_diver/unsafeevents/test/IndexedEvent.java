@@ -0,0 +1,5 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.Event;
+
+public class IndexedEvent extends Event {}
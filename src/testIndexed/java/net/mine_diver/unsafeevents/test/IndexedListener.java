@@ -0,0 +1,26 @@
+package net.mine_diver.unsafeevents.test;
+
+import net.mine_diver.unsafeevents.listener.EventListener;
+import net.mine_diver.unsafeevents.listener.ListenerPriority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexedListener {
+    final List<String> calls = new ArrayList<>();
+
+    @EventListener(priority = ListenerPriority.HIGH)
+    public void high(IndexedEvent event) {
+        calls.add("high");
+    }
+
+    @EventListener(numPriority = 5)
+    public void custom(IndexedEvent event) {
+        calls.add("custom");
+    }
+
+    @EventListener
+    public void normal(IndexedEvent event) {
+        calls.add("normal");
+    }
+}